@@ -3,24 +3,35 @@ package hr.fer.zemris.optjava.dz3;
 import hr.fer.zemris.optjava.dz3.algorithm.annealing.GeometricTempSchedule;
 import hr.fer.zemris.optjava.dz3.algorithm.annealing.ITempSchedule;
 import hr.fer.zemris.optjava.dz3.algorithm.annealing.SimulatedAnnealing;
+import hr.fer.zemris.optjava.dz3.decoder.IDecoder;
 import hr.fer.zemris.optjava.dz3.decoder.NaturalBinaryDecoder;
+import hr.fer.zemris.optjava.dz3.decoder.PackedGrayCodeDecoder;
 import hr.fer.zemris.optjava.dz3.decoder.PassThroughDecoder;
 import hr.fer.zemris.optjava.dz3.function.TransferFunction;
 import hr.fer.zemris.optjava.dz3.neighborhood.BitVectorFlipMultipleNeighborhood;
 import hr.fer.zemris.optjava.dz3.neighborhood.DoubleArrayNormNeighborhood;
+import hr.fer.zemris.optjava.dz3.neighborhood.PackedBitVectorFlipMultipleNeighborhood;
 import hr.fer.zemris.optjava.dz3.solution.BitVectorSolution;
 import hr.fer.zemris.optjava.dz3.solution.DoubleArraySolution;
+import hr.fer.zemris.optjava.dz3.solution.PackedBitVectorSolution;
+import hr.fer.zemris.optjava.dz3.solution.SingleObjectiveSolution;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 
 /**
  * This program uses {@link SimulatedAnnealing} for finding the coefficients of a transfer function
  * whose system response is known.
  *
  * It accepts 2 command-line arguments: the path to a file containing the system response,
- * and the solution type to be used in the algorithm ("decimal" or "binary:number_of_variables").
+ * and the solution type to be used in the algorithm ("decimal", "binary:bits_per_variable"
+ * or "gray:bits_per_variable").
+ *
+ * An optional third argument is a path to a checkpoint file. The state of the algorithm is periodically
+ * written to it, and if it already exists, the algorithm is resumed from it.
  *
  * @author Bruna Dujmović
  *
@@ -30,19 +41,25 @@ public class RegresijaSustava {
     private static final double[] MINS = {-3, -3, -3, -3, -3, -3};
     private static final double[] MAXS = {7, 7, 7, 7, 7, 7};
 
+    /**
+     * The number of outer loop iterations between two checkpoints.
+     */
+    private static final int CHECKPOINT_INTERVAL = 10;
+
     /**
      * The main method. Uses simulated annealing for finding transfer function coefficients.
      *
-     * @param args the command-line arguments, 2 expected
+     * @param args the command-line arguments, 2 or 3 expected
      */
     public static void main(String[] args) {
-        if (args.length != 2) {
-            System.out.println("Expected 2 arguments, got " + args.length);
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Expected 2 or 3 arguments, got " + args.length);
             System.exit(1);
         }
 
         Path filePath = Paths.get(args[0]);
         String solutionType = args[1];
+        Path checkpointPath = args.length == 3 ? Paths.get(args[2]) : null;
 
         TransferFunction function = null;
         try {
@@ -63,11 +80,12 @@ public class RegresijaSustava {
             DoubleArraySolution solution = new DoubleArraySolution(numberOfVariables);
             solution.randomize(MINS, MAXS);
 
-            new SimulatedAnnealing<>(
-                    new PassThroughDecoder(),
+            PassThroughDecoder decoder = new PassThroughDecoder();
+            run(new SimulatedAnnealing<>(
+                    decoder,
                     new DoubleArrayNormNeighborhood(new double[] {0.1, 0.1, 0.1, 0.1, 0.1, 0.1}),
                     solution, function, tempSchedule, true
-            ).run();
+            ), decoder, function, checkpointPath);
 
         } else if (solutionType.startsWith("binary")) {
             int bitsPerVariable = parseBitsPerVariable(solutionType);
@@ -75,10 +93,21 @@ public class RegresijaSustava {
             BitVectorSolution solution = new BitVectorSolution(numberOfVariables * bitsPerVariable);
             solution.randomize();
 
-            new SimulatedAnnealing<>(
-                    new NaturalBinaryDecoder(MINS, MAXS, bitsPerVariable, numberOfVariables),
-                    new BitVectorFlipMultipleNeighborhood(), solution, function, tempSchedule, true
-            ).run();
+            NaturalBinaryDecoder decoder = new NaturalBinaryDecoder(MINS, MAXS, bitsPerVariable, numberOfVariables);
+            run(new SimulatedAnnealing<>(
+                    decoder, new BitVectorFlipMultipleNeighborhood(), solution, function, tempSchedule, true
+            ), decoder, function, checkpointPath);
+
+        } else if (solutionType.startsWith("gray")) {
+            int bitsPerVariable = parseBitsPerVariable(solutionType);
+
+            PackedBitVectorSolution solution = new PackedBitVectorSolution(numberOfVariables * bitsPerVariable);
+            solution.randomize();
+
+            PackedGrayCodeDecoder decoder = new PackedGrayCodeDecoder(MINS, MAXS, bitsPerVariable, numberOfVariables);
+            run(new SimulatedAnnealing<>(
+                    decoder, new PackedBitVectorFlipMultipleNeighborhood(), solution, function, tempSchedule, true
+            ), decoder, function, checkpointPath);
 
         } else {
             System.out.println("Unknown solution type " + solutionType);
@@ -86,10 +115,42 @@ public class RegresijaSustava {
         }
     }
 
+    /**
+     * Runs the given algorithm and prints the best solution it found.
+     *
+     * @param algorithm the algorithm to run
+     * @param decoder the decoder for decoding the best solution
+     * @param function the function being optimised
+     * @param checkpointPath the path to the checkpoint file, or {@code null} if checkpoints are disabled
+     * @param <T> the type of solutions used by the algorithm
+     */
+    private static <T extends SingleObjectiveSolution> void run(SimulatedAnnealing<T> algorithm, IDecoder<T> decoder,
+                                                                TransferFunction function, Path checkpointPath) {
+        if (checkpointPath != null) {
+            try {
+                if (Files.exists(checkpointPath)) {
+                    algorithm.resume(checkpointPath);
+                    System.out.println("Resumed from " + checkpointPath);
+                }
+
+            } catch (IOException e) {
+                System.out.println("Unable to resume from " + checkpointPath + ": " + e.getMessage());
+                System.exit(1);
+            }
+
+            algorithm.enableCheckpoints(checkpointPath, CHECKPOINT_INTERVAL);
+        }
+
+        double[] decodedSolution = decoder.decode(algorithm.run());
+
+        System.out.println("Solution: " + Arrays.toString(decodedSolution));
+        System.out.println("Error: " + function.valueAt(decodedSolution));
+    }
+
     /**
      * Returns the number of bits per variable from the given solution type string.
      *
-     * @param solutionType the solution type string, e.g. "binary:10"
+     * @param solutionType the solution type string, e.g. "binary:10" or "gray:10"
      * @return the number of bits per variable from the given solution type string
      */
     private static int parseBitsPerVariable(String solutionType) {
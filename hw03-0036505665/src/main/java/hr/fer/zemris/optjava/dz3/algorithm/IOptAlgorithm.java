@@ -9,6 +9,8 @@ public interface IOptAlgorithm<T> {
 
     /**
      * Runs the optimization algorithm.
+     *
+     * @return the best solution found by the algorithm
      */
-    void run();
+    T run();
 }
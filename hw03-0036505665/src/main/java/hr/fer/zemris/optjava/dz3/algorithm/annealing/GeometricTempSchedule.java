@@ -64,6 +64,16 @@ public class GeometricTempSchedule implements ITempSchedule {
         return temperature;
     }
 
+    @Override
+    public double getCurrentTemperature() {
+        return currentTemperatrue;
+    }
+
+    @Override
+    public void setCurrentTemperature(double temperature) {
+        this.currentTemperatrue = temperature;
+    }
+
     @Override
     public int getInnerLoopCount() {
         return innerLoopCount;
@@ -15,6 +15,21 @@ public interface ITempSchedule {
      */
     double getNextTemperature();
 
+    /**
+     * Returns the temperature that the next {@link #getNextTemperature()} call will return.
+     *
+     * @return the temperature that the next {@link #getNextTemperature()} call will return
+     */
+    double getCurrentTemperature();
+
+    /**
+     * Sets the temperature that the next {@link #getNextTemperature()} call will return.
+     * Used for resuming the schedule from a saved state.
+     *
+     * @param temperature the temperature to set
+     */
+    void setCurrentTemperature(double temperature);
+
     /**
      * Returns the maximum number of iterations for the inner loop.
      *
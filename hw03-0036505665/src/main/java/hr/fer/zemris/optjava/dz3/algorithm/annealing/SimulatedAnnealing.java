@@ -2,20 +2,62 @@ package hr.fer.zemris.optjava.dz3.algorithm.annealing;
 
 import hr.fer.zemris.optjava.dz3.algorithm.IOptAlgorithm;
 import hr.fer.zemris.optjava.dz3.decoder.IDecoder;
+import hr.fer.zemris.optjava.dz3.function.IDeltaFunction;
 import hr.fer.zemris.optjava.dz3.function.IFunction;
+import hr.fer.zemris.optjava.dz3.neighborhood.IMove;
+import hr.fer.zemris.optjava.dz3.neighborhood.IMoveNeighborhood;
 import hr.fer.zemris.optjava.dz3.neighborhood.INeighborhood;
+import hr.fer.zemris.optjava.dz3.rng.SplitMixRNG;
 import hr.fer.zemris.optjava.dz3.solution.SingleObjectiveSolution;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * An implementation of the simulated annealing optimization algorithm.
  *
+ * If the given neighborhood is an {@link IMoveNeighborhood}, neighbors are generated by modifying the
+ * current solution in place and rejected moves are undone, so no solutions are allocated while the
+ * algorithm runs. Note that in this case the initial solution is modified.
+ *
+ * If the given function is an {@link IDeltaFunction}, neighbors are scored using only the coordinates
+ * in which their decoded points differ from the current point. The function state is rebuilt from the current
+ * point after every {@value #DELTA_RESYNC_INTERVAL} accepted neighbors, so rounding errors of the incremental
+ * updates do not accumulate over long runs.
+ *
+ * The state of the algorithm can be periodically written to a checkpoint file (see
+ * {@link #enableCheckpoints(Path, int)}) and restored from it (see {@link #resume(Path)}). The checkpoint
+ * contains the current and best solutions, the current temperature and the state of the random number
+ * generator used for accepting neighbors. Its header names the solution and decoder types, so a checkpoint
+ * written with a different encoding is rejected instead of being read as garbage.
+ *
  * @param <T> the type of solutions to use
  */
 public class SimulatedAnnealing<T extends SingleObjectiveSolution> implements IOptAlgorithm<T> {
 
+    /**
+     * The first four bytes of every checkpoint file.
+     */
+    private static final int CHECKPOINT_MAGIC = 0x53414350;
+
+    /**
+     * The version of the checkpoint file format.
+     */
+    private static final int CHECKPOINT_VERSION = 2;
+
+    /**
+     * The number of accepted neighbors after which the {@link IDeltaFunction} state is rebuilt.
+     */
+    private static final int DELTA_RESYNC_INTERVAL = 10_000;
+
     /**
      * The decoder for decoding solutions.
      */
@@ -46,6 +88,51 @@ public class SimulatedAnnealing<T extends SingleObjectiveSolution> implements IO
      */
     private boolean minimize;
 
+    /**
+     * The decoded current point, used when the function is an {@link IDeltaFunction}.
+     */
+    private double[] currentPoint;
+
+    /**
+     * A helper array of the indexes of the changed coordinates, used when the function is an {@link IDeltaFunction}.
+     */
+    private int[] changedIndexes;
+
+    /**
+     * The number of neighbors accepted since the {@link IDeltaFunction} state was last built.
+     */
+    private int acceptedSinceResync;
+
+    /**
+     * The random number generator used for accepting neighbors.
+     */
+    private SplitMixRNG rng = new SplitMixRNG();
+
+    /**
+     * The best solution found so far.
+     */
+    private T best;
+
+    /**
+     * The function value of the {@link #best} solution.
+     */
+    private double bestValue;
+
+    /**
+     * The outer loop iteration from which the next run starts.
+     */
+    private int startIteration;
+
+    /**
+     * The path to the checkpoint file, or {@code null} if checkpoints are disabled.
+     */
+    private Path checkpointPath;
+
+    /**
+     * The number of outer loop iterations between two checkpoints.
+     */
+    private int checkpointInterval;
+
     /**
      * Constructs a {@link SimulatedAnnealing} object of the given parameters.
      *
@@ -66,36 +153,262 @@ public class SimulatedAnnealing<T extends SingleObjectiveSolution> implements IO
         this.minimize = minimize;
     }
 
+    /**
+     * Enables periodic checkpoints. After every {@code checkpointInterval} iterations of the outer loop,
+     * the state of the algorithm is written to the given file, which can later be used with
+     * {@link #resume(Path)}.
+     *
+     * @param checkpointPath the path to the checkpoint file
+     * @param checkpointInterval the number of outer loop iterations between two checkpoints
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public void enableCheckpoints(Path checkpointPath, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be >= 1");
+        }
+
+        this.checkpointPath = checkpointPath;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Restores the state of the algorithm from the given checkpoint file, so that the next {@link #run()}
+     * continues from the outer loop iteration in which the checkpoint was written.
+     * The saved current solution is read into the initial solution.
+     *
+     * @param checkpointPath the path to the checkpoint file
+     * @throws IOException if an I/O error occurs or the file is not a valid checkpoint for this algorithm
+     */
+    public void resume(Path checkpointPath) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointPath)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Not a simulated annealing checkpoint: " + checkpointPath);
+            }
+
+            String encoding = in.readUTF();
+            if (!encoding.equals(encoding())) {
+                throw new IOException("Checkpoint " + checkpointPath + " was written for " + encoding
+                        + ", expected " + encoding());
+            }
+
+            int iteration = in.readInt();
+            double temperature = in.readDouble();
+            long rngState = in.readLong();
+            double savedBestValue = in.readDouble();
+
+            startWith.read(in);
+            T savedBest = duplicate(startWith);
+            savedBest.read(in);
+
+            startIteration = iteration;
+            tempSchedule.setCurrentTemperature(temperature);
+            rng.setState(rngState);
+            best = savedBest;
+            bestValue = savedBestValue;
+        }
+    }
+
     @Override
-    public void run() {
+    @SuppressWarnings("unchecked")
+    public T run() {
+        IMoveNeighborhood<T> moveNeighborhood = null;
+        if (neighborhood instanceof IMoveNeighborhood) {
+            moveNeighborhood = (IMoveNeighborhood<T>) neighborhood;
+        }
+
         int innerLoopCount = tempSchedule.getInnerLoopCount();
         int outerLoopCount = tempSchedule.getOuterLoopCount();
 
         T solution = startWith;
+        double[] point = decoder.decode(solution);
+        double value = initialValue(point);
 
-        for (int i = 0; i < outerLoopCount; i++) {
+        if (best == null) {
+            best = duplicate(solution);
+            bestValue = value;
+        }
+
+        for (int i = startIteration; i < outerLoopCount; i++) {
             double temperature = tempSchedule.getNextTemperature();
 
             for (int j = 0; j < innerLoopCount; j++) {
-                T neighbor = neighborhood.randomNeighbor(solution);
+                IMove<T> move = null;
+                T neighbor;
 
-                double[] newPoint = decoder.decode(neighbor);
-                double[] point = decoder.decode(solution);
-
-                double delta = function.valueAt(point) - function.valueAt(newPoint);
-                if (minimize) {
-                    delta = -delta;
+                if (moveNeighborhood != null) {
+                    move = moveNeighborhood.applyRandomMove(solution);
+                    neighbor = solution;
+                } else {
+                    neighbor = neighborhood.randomNeighbor(solution);
                 }
 
-                if (delta <= 0 || ThreadLocalRandom.current().nextDouble() < Math.exp(-delta/temperature)) {
+                decoder.decode(neighbor, point);
+                double newValue = valueAt(point);
+
+                if (accept(value, newValue, temperature)) {
                     solution = neighbor;
+                    value = accepted(point, newValue);
+
+                    if (isBetter(value, bestValue)) {
+                        best = duplicate(solution);
+                        bestValue = value;
+                    }
+
+                } else if (move != null) {
+                    move.undo(solution);
                 }
             }
+
+            if (checkpointPath != null && (i + 1) % checkpointInterval == 0) {
+                writeCheckpoint(i + 1, solution);
+            }
+        }
+
+        startIteration = outerLoopCount;
+        return best;
+    }
+
+    /**
+     * Writes the state of the algorithm to the {@link #checkpointPath}.
+     * The checkpoint is first written to a temporary file which then replaces the previous checkpoint,
+     * so a checkpoint is never left partially written.
+     *
+     * @param nextIteration the index of the next outer loop iteration
+     * @param solution the current solution
+     * @throws UncheckedIOException if an I/O error occurs
+     */
+    private void writeCheckpoint(int nextIteration, T solution) {
+        Path temporaryPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(CHECKPOINT_VERSION);
+                out.writeUTF(encoding());
+                out.writeInt(nextIteration);
+                out.writeDouble(tempSchedule.getCurrentTemperature());
+                out.writeLong(rng.getState());
+                out.writeDouble(bestValue);
+
+                solution.write(out);
+                best.write(out);
+            }
+
+            Files.move(temporaryPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write checkpoint " + checkpointPath, e);
         }
+    }
+
+    /**
+     * Returns the identifier of the solution encoding, made of the solution and decoder class names.
+     *
+     * @return the identifier of the solution encoding
+     */
+    private String encoding() {
+        return startWith.getClass().getName() + "/" + decoder.getClass().getName();
+    }
+
+    /**
+     * Returns a duplicate of the given solution.
+     *
+     * @param solution the solution to duplicate
+     * @return a duplicate of the given solution
+     */
+    @SuppressWarnings("unchecked")
+    private T duplicate(T solution) {
+        return (T) solution.duplicate();
+    }
+
+    /**
+     * Returns {@code true} if the first function value is better than the second one.
+     *
+     * @param value the first function value
+     * @param other the second function value
+     * @return {@code true} if the first function value is better than the second one
+     */
+    private boolean isBetter(double value, double other) {
+        return minimize ? value < other : value > other;
+    }
 
-        double[] decodedSolution = decoder.decode(solution);
+    /**
+     * Returns the function value of the initial point, initializing the {@link IDeltaFunction} state if needed.
+     *
+     * @param point the initial point
+     * @return the function value of the initial point
+     */
+    private double initialValue(double[] point) {
+        if (!(function instanceof IDeltaFunction)) {
+            return function.valueAt(point);
+        }
+
+        currentPoint = Arrays.copyOf(point, point.length);
+        changedIndexes = new int[point.length];
+        acceptedSinceResync = 0;
+
+        return ((IDeltaFunction) function).initialize(point);
+    }
+
+    /**
+     * Returns the function value of the given neighbor point.
+     *
+     * @param point the neighbor point
+     * @return the function value of the given neighbor point
+     */
+    private double valueAt(double[] point) {
+        if (!(function instanceof IDeltaFunction)) {
+            return function.valueAt(point);
+        }
+
+        int changedCount = 0;
+        for (int i = 0; i < point.length; i++) {
+            if (point[i] != currentPoint[i]) {
+                changedIndexes[changedCount++] = i;
+            }
+        }
+
+        return ((IDeltaFunction) function).valueWithChange(point, changedIndexes, changedCount);
+    }
+
+    /**
+     * Makes the given neighbor point the current point. Every {@link #DELTA_RESYNC_INTERVAL} accepted neighbors,
+     * the {@link IDeltaFunction} state is rebuilt and the value of the point is recalculated from scratch.
+     *
+     * @param point the accepted neighbor point
+     * @param value the function value of the accepted neighbor point
+     * @return the function value of the accepted neighbor point
+     */
+    private double accepted(double[] point, double value) {
+        if (!(function instanceof IDeltaFunction)) {
+            return value;
+        }
+
+        System.arraycopy(point, 0, currentPoint, 0, point.length);
+        if (++acceptedSinceResync < DELTA_RESYNC_INTERVAL) {
+            ((IDeltaFunction) function).commitChange();
+            return value;
+        }
+
+        acceptedSinceResync = 0;
+        return ((IDeltaFunction) function).initialize(point);
+    }
+
+    /**
+     * Returns {@code true} if a neighbor of the given value should replace the current solution.
+     *
+     * @param value the function value of the current solution
+     * @param newValue the function value of the neighbor
+     * @param temperature the current temperature
+     * @return {@code true} if the neighbor should be accepted
+     */
+    private boolean accept(double value, double newValue, double temperature) {
+        double delta = value - newValue;
+        if (minimize) {
+            delta = -delta;
+        }
 
-        System.out.println("Solution: " + Arrays.toString(decodedSolution));
-        System.out.println("Error: " + function.valueAt(decodedSolution));
+        return delta <= 0 || rng.nextDouble() < Math.exp(-delta/temperature);
     }
 }
@@ -0,0 +1,171 @@
+package hr.fer.zemris.optjava.dz3.benchmark;
+
+import hr.fer.zemris.optjava.dz3.decoder.GrayCodeDecoder;
+import hr.fer.zemris.optjava.dz3.decoder.IDecoder;
+import hr.fer.zemris.optjava.dz3.decoder.NaturalBinaryDecoder;
+import hr.fer.zemris.optjava.dz3.decoder.PackedGrayCodeDecoder;
+import hr.fer.zemris.optjava.dz3.decoder.PackedNaturalBinaryDecoder;
+import hr.fer.zemris.optjava.dz3.neighborhood.BitVectorFlipSingleNeighborhood;
+import hr.fer.zemris.optjava.dz3.neighborhood.INeighborhood;
+import hr.fer.zemris.optjava.dz3.neighborhood.PackedBitVectorFlipSingleNeighborhood;
+import hr.fer.zemris.optjava.dz3.solution.BitVectorSolution;
+import hr.fer.zemris.optjava.dz3.solution.PackedBitVectorSolution;
+
+import java.util.Arrays;
+
+/**
+ * A simple benchmark comparing {@link BitVectorSolution} and {@link PackedBitVectorSolution}
+ * decoding and neighbor generation for 6 variables encoded with 30 bits each.
+ *
+ * Each case is warmed up before it is measured, and the average time per operation is printed.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class DecoderBenchmark {
+
+    /**
+     * The number of encoded variables.
+     */
+    private static final int VARIABLES = 6;
+
+    /**
+     * The number of bits per encoded variable.
+     */
+    private static final int BITS_PER_VARIABLE = 30;
+
+    /**
+     * The number of operations performed while warming up.
+     */
+    private static final int WARMUP_OPERATIONS = 2_000_000;
+
+    /**
+     * The number of measured operations.
+     */
+    private static final int OPERATIONS = 10_000_000;
+
+    /**
+     * Prevents the JIT compiler from eliminating benchmarked code.
+     */
+    private static double sink;
+
+    /**
+     * The main method. Runs the benchmark.
+     *
+     * @param args the command-line arguments, none expected
+     */
+    public static void main(String[] args) {
+        double[] mins = new double[VARIABLES];
+        double[] maxs = new double[VARIABLES];
+        Arrays.fill(mins, -3);
+        Arrays.fill(maxs, 7);
+
+        BitVectorSolution solution = new BitVectorSolution(VARIABLES * BITS_PER_VARIABLE);
+        solution.randomize();
+
+        PackedBitVectorSolution packedSolution = new PackedBitVectorSolution(VARIABLES * BITS_PER_VARIABLE);
+        for (int i = 0; i < solution.getBits().length; i++) {
+            if (solution.getBits()[i]) {
+                packedSolution.flip(i);
+            }
+        }
+
+        benchmarkDecoder("NaturalBinaryDecoder", solution,
+                new NaturalBinaryDecoder(mins, maxs, BITS_PER_VARIABLE, VARIABLES));
+        benchmarkDecoder("PackedNaturalBinaryDecoder", packedSolution,
+                new PackedNaturalBinaryDecoder(mins, maxs, BITS_PER_VARIABLE, VARIABLES));
+        benchmarkDecoder("GrayCodeDecoder", solution,
+                new GrayCodeDecoder(mins, maxs, BITS_PER_VARIABLE, VARIABLES));
+        benchmarkDecoder("PackedGrayCodeDecoder", packedSolution,
+                new PackedGrayCodeDecoder(mins, maxs, BITS_PER_VARIABLE, VARIABLES));
+
+        benchmarkNeighborhood("BitVectorFlipSingleNeighborhood", solution,
+                new BitVectorFlipSingleNeighborhood());
+        benchmarkNeighborhood("PackedBitVectorFlipSingleNeighborhood", packedSolution,
+                new PackedBitVectorFlipSingleNeighborhood());
+        benchmarkInPlaceFlip(packedSolution);
+
+        System.out.println("(sink: " + sink + ")");
+    }
+
+    /**
+     * Measures and prints the average time needed for decoding the given solution.
+     *
+     * @param name the name of the benchmark case
+     * @param solution the solution to decode
+     * @param decoder the decoder to use
+     * @param <T> the type of the solution
+     */
+    private static <T> void benchmarkDecoder(String name, T solution, IDecoder<T> decoder) {
+        double[] values = new double[VARIABLES];
+
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            decoder.decode(solution, values);
+            sink += values[i % VARIABLES];
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            decoder.decode(solution, values);
+            sink += values[i % VARIABLES];
+        }
+
+        report(name, System.nanoTime() - start);
+    }
+
+    /**
+     * Measures and prints the average time needed for generating a neighbor of the given solution.
+     *
+     * @param name the name of the benchmark case
+     * @param solution the solution whose neighbors are generated
+     * @param neighborhood the neighborhood to use
+     * @param <T> the type of the solution
+     */
+    private static <T> void benchmarkNeighborhood(String name, T solution, INeighborhood<T> neighborhood) {
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sink += neighborhood.randomNeighbor(solution).hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink += neighborhood.randomNeighbor(solution).hashCode();
+        }
+
+        report(name, System.nanoTime() - start);
+    }
+
+    /**
+     * Measures and prints the average time needed for flipping a bit of the given solution in place
+     * and undoing the flip.
+     *
+     * @param solution the solution to modify
+     */
+    private static void benchmarkInPlaceFlip(PackedBitVectorSolution solution) {
+        int size = solution.getSize();
+
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            solution.flip(i % size);
+            sink += solution.getWords()[0];
+            solution.flip(i % size);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            solution.flip(i % size);
+            sink += solution.getWords()[0];
+            solution.flip(i % size);
+        }
+
+        report("PackedBitVectorSolution flip/undo", System.nanoTime() - start);
+    }
+
+    /**
+     * Prints the average time per operation.
+     *
+     * @param name the name of the benchmark case
+     * @param elapsed the total measured time in nanoseconds
+     */
+    private static void report(String name, long elapsed) {
+        System.out.printf("%-40s %8.2f ns/op%n", name, (double) elapsed / OPERATIONS);
+    }
+}
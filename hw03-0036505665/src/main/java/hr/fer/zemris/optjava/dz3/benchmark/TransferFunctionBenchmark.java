@@ -0,0 +1,148 @@
+package hr.fer.zemris.optjava.dz3.benchmark;
+
+import hr.fer.zemris.optjava.dz3.function.TransferFunction;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A simple benchmark comparing {@link TransferFunction#valueAt(double[])} with an evaluation that reads
+ * the system response through {@link RealMatrix#getEntry(int, int)}, which is how the function used to
+ * be evaluated.
+ *
+ * Each case is warmed up before it is measured, and the average time per evaluation is printed.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class TransferFunctionBenchmark {
+
+    /**
+     * The number of evaluations performed while warming up.
+     */
+    private static final int WARMUP_OPERATIONS = 200_000;
+
+    /**
+     * The number of measured evaluations.
+     */
+    private static final int OPERATIONS = 1_000_000;
+
+    /**
+     * The number of different points the function is evaluated in.
+     */
+    private static final int POINT_COUNT = 1024;
+
+    /**
+     * Prevents the JIT compiler from eliminating benchmarked code.
+     */
+    private static double sink;
+
+    /**
+     * The main method. Runs the benchmark.
+     *
+     * @param args the command-line arguments, 1 expected - a path to the file containing the system response
+     * @throws IOException if an I/O error occurs while reading the file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Expected 1 argument, got " + args.length);
+            System.exit(1);
+        }
+
+        Path filePath = Paths.get(args[0]);
+        TransferFunction function = TransferFunction.fromFile(filePath);
+
+        List<String> lines = Files.readAllLines(filePath);
+        lines.removeIf(line -> line.startsWith("#"));
+        double[][] data = new double[lines.size()][];
+        for (int i = 0; i < data.length; i++) {
+            String[] parts = lines.get(i).substring(1, lines.get(i).length() - 1).split(",\\s*");
+
+            data[i] = new double[parts.length];
+            for (int j = 0; j < parts.length; j++) {
+                data[i][j] = Double.parseDouble(parts[j].trim());
+            }
+        }
+        RealMatrix matrix = new Array2DRowRealMatrix(data);
+
+        double[][] points = new double[POINT_COUNT][function.getNumberOfVariables()];
+        for (double[] point : points) {
+            for (int i = 0; i < point.length; i++) {
+                point[i] = ThreadLocalRandom.current().nextDouble(-3, 7);
+            }
+        }
+
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sink += matrixValueAt(matrix, points[i % POINT_COUNT]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink += matrixValueAt(matrix, points[i % POINT_COUNT]);
+        }
+        report("RealMatrix evaluation", System.nanoTime() - start);
+
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sink += function.valueAt(points[i % POINT_COUNT]);
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            sink += function.valueAt(points[i % POINT_COUNT]);
+        }
+        report("TransferFunction.valueAt", System.nanoTime() - start);
+
+        System.out.println("(sink: " + sink + ")");
+    }
+
+    /**
+     * Evaluates the transfer function by reading the system response from the given matrix whose
+     * rows contain the values x1, ..., x5, y.
+     *
+     * @param matrix the matrix containing the system response
+     * @param point the point for calculating the value
+     * @return the value of the transfer function in the specified point
+     */
+    private static double matrixValueAt(RealMatrix matrix, double[] point) {
+        RealVector pointVector = new ArrayRealVector(point);
+        double a = pointVector.getEntry(0);
+        double b = pointVector.getEntry(1);
+        double c = pointVector.getEntry(2);
+        double d = pointVector.getEntry(3);
+        double e = pointVector.getEntry(4);
+        double f = pointVector.getEntry(5);
+
+        double value = 0.0;
+
+        for (int i = 0, rows = matrix.getRowDimension(); i < rows; i++) {
+            double x1 = matrix.getEntry(i, 0);
+            double x2 = matrix.getEntry(i, 1);
+            double x3 = matrix.getEntry(i, 2);
+            double x4 = matrix.getEntry(i, 3);
+            double x5 = matrix.getEntry(i, 4);
+
+            double difference = a * x1 + b * x1*x1*x1 * x2
+                    + c * Math.exp(d * x3) * (1.0 + Math.cos(e * x4))
+                    + f * x4 * x5*x5 - matrix.getEntry(i, 5);
+            value += difference * difference;
+        }
+
+        return value;
+    }
+
+    /**
+     * Prints the average time per evaluation.
+     *
+     * @param name the name of the benchmark case
+     * @param elapsed the total measured time in nanoseconds
+     */
+    private static void report(String name, long elapsed) {
+        System.out.printf("%-40s %8.2f ns/op%n", name, (double) elapsed / OPERATIONS);
+    }
+}
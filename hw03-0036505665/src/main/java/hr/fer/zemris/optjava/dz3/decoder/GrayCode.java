@@ -0,0 +1,57 @@
+package hr.fer.zemris.optjava.dz3.decoder;
+
+/**
+ * A helper class for converting Gray codes into natural binary numbers.
+ *
+ * The conversion is table-driven - each byte of the Gray code is converted using a precomputed
+ * table, and the result is corrected using the parity of the more significant bytes.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+final class GrayCode {
+
+    /**
+     * A table mapping each 8-bit Gray code to its natural binary value.
+     */
+    private static final int[] BYTE_TABLE = new int[256];
+
+    static {
+        for (int gray = 0; gray < BYTE_TABLE.length; gray++) {
+            int binary = gray;
+
+            for (int shifted = gray >>> 1; shifted != 0; shifted >>>= 1) {
+                binary ^= shifted;
+            }
+
+            BYTE_TABLE[gray] = binary;
+        }
+    }
+
+    /**
+     * Disables instantiation.
+     */
+    private GrayCode() {
+    }
+
+    /**
+     * Converts the given Gray code of the specified length into a natural binary number.
+     *
+     * @param gray the Gray code to convert
+     * @param bits the number of bits in the Gray code, between 1 and 64
+     * @return the natural binary value of the given Gray code
+     */
+    static long toBinary(long gray, int bits) {
+        long binary = 0;
+        int parity = 0;
+
+        for (int shift = (bits - 1) & ~7; shift >= 0; shift -= 8) {
+            int decoded = BYTE_TABLE[(int) (gray >>> shift) & 0xFF] ^ -parity & 0xFF;
+
+            binary |= (long) decoded << shift;
+            parity = decoded & 1;
+        }
+
+        return binary;
+    }
+}
@@ -0,0 +1,63 @@
+package hr.fer.zemris.optjava.dz3.decoder;
+
+import hr.fer.zemris.optjava.dz3.solution.BitVectorSolution;
+
+/**
+ * A {@link BitVectorDecoder} that decodes bit vector solutions using the Gray code.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class GrayCodeDecoder extends BitVectorDecoder {
+
+    /**
+     * Constructs a {@link GrayCodeDecoder} with the specified parameters.
+     *
+     * @param mins the minimum values that each solution variable can assume
+     * @param maxs the maximum values that each solution variable can assume
+     * @param bitsPerVariable an array specifying how many bits are used to encode each solution variable
+     * @param n the total number of variables represented by the solution
+     */
+    public GrayCodeDecoder(double[] mins, double[] maxs, int[] bitsPerVariable, int n) {
+        super(mins, maxs, bitsPerVariable, n);
+    }
+
+    /**
+     * Constructs a {@link GrayCodeDecoder} with the specified parameters.
+     * All variables are considered to be encoded with the same number of bits.
+     *
+     * @param mins the minimum values that each solution variable can assume
+     * @param maxs the maximum values that each solution variable can assume
+     * @param bitsPerAllVariables how many bits are used to encode a solution variable
+     * @param n the total number of variables represented by the solution
+     */
+    public GrayCodeDecoder(double[] mins, double[] maxs, int bitsPerAllVariables, int n) {
+        super(mins, maxs, bitsPerAllVariables, n);
+    }
+
+    @Override
+    public double[] decode(BitVectorSolution solution) {
+        double[] values = new double[n];
+        decode(solution, values);
+
+        return values;
+    }
+
+    @Override
+    public void decode(BitVectorSolution solution, double[] values) {
+        boolean[] bits = solution.getBits();
+        int shift = 0;
+
+        for (int i = 0; i < n; i++) {
+            long gray = 0;
+
+            for (int j = 0; j < bitsPerVariable[i]; j++) {
+                gray = (gray << 1) | (bits[j + shift] ? 1 : 0);
+            }
+            shift += bitsPerVariable[i];
+
+            long k = GrayCode.toBinary(gray, bitsPerVariable[i]);
+            values[i] = mins[i] + k / (Math.pow(2, bitsPerVariable[i]) - 1) * (maxs[i] - mins[i]);
+        }
+    }
+}
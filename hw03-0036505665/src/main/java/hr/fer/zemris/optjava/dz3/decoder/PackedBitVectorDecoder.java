@@ -0,0 +1,125 @@
+package hr.fer.zemris.optjava.dz3.decoder;
+
+import hr.fer.zemris.optjava.dz3.solution.PackedBitVectorSolution;
+
+import java.util.Arrays;
+
+/**
+ * An abstract implementation of {@link IDecoder} for decoding {@link PackedBitVectorSolution} objects.
+ *
+ * The bits encoding each variable are read as a single number, which is then converted into a natural
+ * binary number by {@link #toBinary(long, int)} and scaled into the variable's range.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public abstract class PackedBitVectorDecoder implements IDecoder<PackedBitVectorSolution> {
+
+    /**
+     * The minimum values that each solution variable can assume.
+     */
+    double[] mins;
+
+    /**
+     * An array specifying how many bits are used to encode each solution variable.
+     */
+    int[] bitsPerVariable;
+
+    /**
+     * An array specifying the index of the first bit of each solution variable.
+     */
+    int[] offsets;
+
+    /**
+     * An array of factors for scaling the decoded natural binary numbers into the variable ranges.
+     */
+    double[] steps;
+
+    /**
+     * The total number of variables represented by the solution.
+     */
+    int n;
+
+    /**
+     * Constructs a {@link PackedBitVectorDecoder} with the specified parameters.
+     *
+     * @param mins the minimum values that each solution variable can assume
+     * @param maxs the maximum values that each solution variable can assume
+     * @param bitsPerVariable an array specifying how many bits are used to encode each solution variable
+     * @param n the total number of variables represented by the solution
+     * @throws IllegalArgumentException if a variable is encoded with more than 63 bits
+     */
+    PackedBitVectorDecoder(double[] mins, double[] maxs, int[] bitsPerVariable, int n) {
+        this.mins = mins;
+        this.bitsPerVariable = bitsPerVariable;
+        this.n = n;
+
+        this.offsets = new int[n];
+        this.steps = new double[n];
+
+        int offset = 0;
+        for (int i = 0; i < n; i++) {
+            if (bitsPerVariable[i] < 1 || bitsPerVariable[i] >= Long.SIZE) {
+                throw new IllegalArgumentException("Variables must be encoded with 1 to 63 bits!");
+            }
+
+            offsets[i] = offset;
+            steps[i] = (maxs[i] - mins[i]) / ((1L << bitsPerVariable[i]) - 1);
+            offset += bitsPerVariable[i];
+        }
+    }
+
+    /**
+     * Constructs a {@link PackedBitVectorDecoder} with the specified parameters.
+     * All variables are considered to be encoded with the same number of bits.
+     *
+     * @param mins the minimum values that each solution variable can assume
+     * @param maxs the maximum values that each solution variable can assume
+     * @param bitsPerAllVariables how many bits are used to encode a solution variable
+     * @param n the total number of variables represented by the solution
+     * @throws IllegalArgumentException if a variable is encoded with more than 63 bits
+     */
+    PackedBitVectorDecoder(double[] mins, double[] maxs, int bitsPerAllVariables, int n) {
+        this(mins, maxs, filled(n, bitsPerAllVariables), n);
+    }
+
+    /**
+     * Converts the bits encoding a single variable into a natural binary number.
+     *
+     * @param code the bits encoding a single variable
+     * @param bits the number of bits encoding the variable
+     * @return the natural binary number represented by the given bits
+     */
+    abstract long toBinary(long code, int bits);
+
+    @Override
+    public double[] decode(PackedBitVectorSolution solution) {
+        double[] values = new double[n];
+        decode(solution, values);
+
+        return values;
+    }
+
+    @Override
+    public void decode(PackedBitVectorSolution solution, double[] values) {
+        for (int i = 0; i < n; i++) {
+            long code = solution.getBits(offsets[i], bitsPerVariable[i]);
+
+            values[i] = mins[i] + toBinary(code, bitsPerVariable[i]) * steps[i];
+        }
+    }
+
+    /**
+     * Returns an array of the specified length filled with the given value.
+     *
+     * @param length the length of the array
+     * @param value the value to fill the array with
+     * @return an array of the specified length filled with the given value
+     */
+    private static int[] filled(int length, int value) {
+        int[] array = new int[length];
+        Arrays.fill(array, value);
+
+        return array;
+    }
+}
@@ -0,0 +1,40 @@
+package hr.fer.zemris.optjava.dz3.decoder;
+
+/**
+ * A {@link PackedBitVectorDecoder} that decodes packed bit vector solutions using the natural binary code.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class PackedNaturalBinaryDecoder extends PackedBitVectorDecoder {
+
+    /**
+     * Constructs a {@link PackedNaturalBinaryDecoder} with the specified parameters.
+     *
+     * @param mins the minimum values that each solution variable can assume
+     * @param maxs the maximum values that each solution variable can assume
+     * @param bitsPerVariable an array specifying how many bits are used to encode each solution variable
+     * @param n the total number of variables represented by the solution
+     */
+    public PackedNaturalBinaryDecoder(double[] mins, double[] maxs, int[] bitsPerVariable, int n) {
+        super(mins, maxs, bitsPerVariable, n);
+    }
+
+    /**
+     * Constructs a {@link PackedNaturalBinaryDecoder} with the specified parameters.
+     * All variables are considered to be encoded with the same number of bits.
+     *
+     * @param mins the minimum values that each solution variable can assume
+     * @param maxs the maximum values that each solution variable can assume
+     * @param bitsPerAllVariables how many bits are used to encode a solution variable
+     * @param n the total number of variables represented by the solution
+     */
+    public PackedNaturalBinaryDecoder(double[] mins, double[] maxs, int bitsPerAllVariables, int n) {
+        super(mins, maxs, bitsPerAllVariables, n);
+    }
+
+    @Override
+    long toBinary(long code, int bits) {
+        return code;
+    }
+}
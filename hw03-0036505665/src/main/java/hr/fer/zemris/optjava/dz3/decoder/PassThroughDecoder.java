@@ -21,8 +21,6 @@ public class PassThroughDecoder implements IDecoder<DoubleArraySolution> {
 
     @Override
     public void decode(DoubleArraySolution solution, double[] values) {
-        double[] decoded = decode(solution);
-
-        System.arraycopy(decoded, 0, values, 0, values.length);
+        System.arraycopy(solution.getValues(), 0, values, 0, values.length);
     }
 }
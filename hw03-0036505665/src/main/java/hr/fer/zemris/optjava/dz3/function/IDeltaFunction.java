@@ -0,0 +1,42 @@
+package hr.fer.zemris.optjava.dz3.function;
+
+/**
+ * An {@link IFunction} that can cheaply evaluate points which differ from a current point in only
+ * some of their coordinates.
+ *
+ * The function keeps state for a single current point. The state is built using
+ * {@link #initialize(double[])}, a proposed point is scored using {@link #valueWithChange(double[], int[], int)},
+ * and the last scored point becomes the new current point after {@link #commitChange()}. Implementations
+ * are therefore not thread-safe - a separate instance should be used for each optimization run.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public interface IDeltaFunction extends IFunction {
+
+    /**
+     * Builds the state for the given point, making it the current point.
+     *
+     * @param point the current point
+     * @return the value of this function at the given point
+     */
+    double initialize(double[] point);
+
+    /**
+     * Returns the value of this function at the given point, which differs from the current point
+     * only in the specified coordinates.
+     *
+     * @param point the proposed point
+     * @param changedIndexes an array whose first {@code changedCount} elements are the indexes of the
+     *                       coordinates in which the proposed point differs from the current point
+     * @param changedCount the number of changed coordinates
+     * @return the value of this function at the given point
+     * @throws IllegalStateException if the state has not been initialized
+     */
+    double valueWithChange(double[] point, int[] changedIndexes, int changedCount);
+
+    /**
+     * Makes the point last given to {@link #valueWithChange(double[], int[], int)} the current point.
+     */
+    void commitChange();
+}
@@ -0,0 +1,66 @@
+package hr.fer.zemris.optjava.dz3.neighborhood;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An undo record of a move that flipped some bits of a solution. Undoing the move flips them back.
+ *
+ * A record is reused for every move of a neighborhood - {@link #clear()} starts recording a new move.
+ *
+ * @param <T> the type of the solution the move was applied to
+ * @author Bruna Dujmović
+ */
+final class BitFlipMove<T> implements IMove<T> {
+
+    /**
+     * The operation flipping the bit on the given index of a solution.
+     */
+    private final ObjIntConsumer<T> flip;
+
+    /**
+     * The indexes of the flipped bits.
+     */
+    private int[] indexes = new int[1];
+
+    /**
+     * The number of flipped bits.
+     */
+    private int count;
+
+    /**
+     * Constructs a {@link BitFlipMove}.
+     *
+     * @param flip the operation flipping the bit on the given index of a solution
+     */
+    BitFlipMove(ObjIntConsumer<T> flip) {
+        this.flip = flip;
+    }
+
+    /**
+     * Forgets the recorded flips, so a new move can be recorded.
+     */
+    void clear() {
+        count = 0;
+    }
+
+    /**
+     * Records a flip of the bit on the given index.
+     *
+     * @param index the index of the flipped bit
+     */
+    void record(int index) {
+        if (count == indexes.length) {
+            indexes = Arrays.copyOf(indexes, 2 * count);
+        }
+
+        indexes[count++] = index;
+    }
+
+    @Override
+    public void undo(T solution) {
+        for (int i = 0; i < count; i++) {
+            flip.accept(solution, indexes[i]);
+        }
+    }
+}
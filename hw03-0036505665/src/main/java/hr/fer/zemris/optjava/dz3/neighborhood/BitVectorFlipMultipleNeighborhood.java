@@ -8,9 +8,16 @@ import java.util.concurrent.ThreadLocalRandom;
  * An {@link INeighborhood} implementation that generates {@link BitVectorSolution} neighbors
  * by flipping a randomly chosen number of bits.
  *
+ * Neighbors can also be generated in place using {@link #applyRandomMove(BitVectorSolution)}.
+ *
  * @author Bruna Dujmović
  */
-public class BitVectorFlipMultipleNeighborhood implements INeighborhood<BitVectorSolution> {
+public class BitVectorFlipMultipleNeighborhood implements IMoveNeighborhood<BitVectorSolution> {
+
+    /**
+     * The reused undo record of the last applied move.
+     */
+    private final BitFlipMove<BitVectorSolution> move = new BitFlipMove<>(BitVectorSolution::flip);
 
     @Override
     public BitVectorSolution randomNeighbor(BitVectorSolution solution) {
@@ -28,4 +35,21 @@ public class BitVectorFlipMultipleNeighborhood implements INeighborhood<BitVecto
 
         return neighbor;
     }
+
+    @Override
+    public IMove<BitVectorSolution> applyRandomMove(BitVectorSolution solution) {
+        boolean[] bits = solution.getBits();
+        int length = bits.length;
+        int numberToFlip = ThreadLocalRandom.current().nextInt(length);
+
+        move.clear();
+        for (int i = 0; i < numberToFlip; i++) {
+            int randomIndex = ThreadLocalRandom.current().nextInt(length);
+
+            bits[randomIndex] = !bits[randomIndex];
+            move.record(randomIndex);
+        }
+
+        return move;
+    }
 }
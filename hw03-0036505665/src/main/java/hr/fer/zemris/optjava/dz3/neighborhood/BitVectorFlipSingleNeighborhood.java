@@ -8,9 +8,16 @@ import java.util.concurrent.ThreadLocalRandom;
  * An {@link INeighborhood} implementation that generates {@link BitVectorSolution} neighbors
  * by flipping a single randomly chosen bit.
  *
+ * Neighbors can also be generated in place using {@link #applyRandomMove(BitVectorSolution)}.
+ *
  * @author Bruna Dujmović
  */
-public class BitVectorFlipSingleNeighborhood implements INeighborhood<BitVectorSolution> {
+public class BitVectorFlipSingleNeighborhood implements IMoveNeighborhood<BitVectorSolution> {
+
+    /**
+     * The reused undo record of the last applied move.
+     */
+    private final SingleBitFlipMove<BitVectorSolution> move = new SingleBitFlipMove<>(BitVectorSolution::flip);
 
     @Override
     public BitVectorSolution randomNeighbor(BitVectorSolution solution) {
@@ -23,4 +30,16 @@ public class BitVectorFlipSingleNeighborhood implements INeighborhood<BitVectorS
 
         return neighbor;
     }
+
+    @Override
+    public IMove<BitVectorSolution> applyRandomMove(BitVectorSolution solution) {
+        boolean[] bits = solution.getBits();
+        int length = bits.length;
+        int randomIndex = ThreadLocalRandom.current().nextInt(length);
+
+        bits[randomIndex] = !bits[randomIndex];
+        move.record(randomIndex);
+
+        return move;
+    }
 }
@@ -2,21 +2,30 @@ package hr.fer.zemris.optjava.dz3.neighborhood;
 
 import hr.fer.zemris.optjava.dz3.solution.DoubleArraySolution;
 
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * An {@link INeighborhood} implementation that generates {@link DoubleArraySolution} neighbors
  * using normal distribution.
  *
+ * Neighbors can also be generated in place using {@link #applyRandomMove(DoubleArraySolution)}, in which
+ * case the previous values are kept in a reused buffer so that the move can be undone.
+ *
  * @author Bruna Dujmović
  */
-public class DoubleArrayNormNeighborhood implements INeighborhood<DoubleArraySolution> {
+public class DoubleArrayNormNeighborhood implements IMoveNeighborhood<DoubleArraySolution> {
 
     /**
      * An array of factors for multiplying randomly generated variable values.
      */
     private double[] deltas;
 
+    /**
+     * The reused undo record of the last applied move.
+     */
+    private final Move move = new Move();
+
     /**
      * Constructs a {@link DoubleArrayNormNeighborhood} with the given deltas.
      *
@@ -37,4 +46,45 @@ public class DoubleArrayNormNeighborhood implements INeighborhood<DoubleArraySol
 
         return neighbor;
     }
+
+    @Override
+    public IMove<DoubleArraySolution> applyRandomMove(DoubleArraySolution solution) {
+        double[] values = solution.getValues();
+        move.save(values);
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] += ThreadLocalRandom.current().nextGaussian() * deltas[i];
+        }
+
+        return move;
+    }
+
+    /**
+     * An undo record that restores the values a solution had before the move.
+     */
+    private static class Move implements IMove<DoubleArraySolution> {
+
+        /**
+         * The values of the solution before the move.
+         */
+        private double[] previousValues = new double[0];
+
+        /**
+         * Saves the given values so they can be restored later.
+         *
+         * @param values the values to save
+         */
+        private void save(double[] values) {
+            if (previousValues.length != values.length) {
+                previousValues = Arrays.copyOf(values, values.length);
+            } else {
+                System.arraycopy(values, 0, previousValues, 0, values.length);
+            }
+        }
+
+        @Override
+        public void undo(DoubleArraySolution solution) {
+            System.arraycopy(previousValues, 0, solution.getValues(), 0, previousValues.length);
+        }
+    }
 }
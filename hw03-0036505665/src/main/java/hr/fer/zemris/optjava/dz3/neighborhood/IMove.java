@@ -0,0 +1,17 @@
+package hr.fer.zemris.optjava.dz3.neighborhood;
+
+/**
+ * An undo record of a move that was applied to a solution in place by an {@link IMoveNeighborhood}.
+ *
+ * @param <T> the type of the solution the move was applied to
+ * @author Bruna Dujmović
+ */
+public interface IMove<T> {
+
+    /**
+     * Reverts the move, restoring the given solution to the state it was in before the move was applied.
+     *
+     * @param solution the solution the move was applied to
+     */
+    void undo(T solution);
+}
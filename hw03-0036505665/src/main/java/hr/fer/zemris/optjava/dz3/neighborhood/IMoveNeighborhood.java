@@ -0,0 +1,23 @@
+package hr.fer.zemris.optjava.dz3.neighborhood;
+
+/**
+ * An {@link INeighborhood} that can also move a solution to a random neighbor in place.
+ *
+ * Instead of duplicating the solution for every neighbor, a move is applied directly to the given
+ * solution and an {@link IMove} record is returned which can be used to roll the move back.
+ * Implementations reuse the same record between calls, so a record is only valid until the next
+ * {@link #applyRandomMove(Object)} call.
+ *
+ * @param <T> the type of the solution and neighbor
+ * @author Bruna Dujmović
+ */
+public interface IMoveNeighborhood<T> extends INeighborhood<T> {
+
+    /**
+     * Moves the given solution to a randomly generated neighbor in place.
+     *
+     * @param solution the solution to modify
+     * @return the undo record of the applied move, valid until the next call of this method
+     */
+    IMove<T> applyRandomMove(T solution);
+}
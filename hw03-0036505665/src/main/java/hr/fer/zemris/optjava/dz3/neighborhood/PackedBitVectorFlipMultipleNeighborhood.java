@@ -0,0 +1,51 @@
+package hr.fer.zemris.optjava.dz3.neighborhood;
+
+import hr.fer.zemris.optjava.dz3.solution.PackedBitVectorSolution;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An {@link INeighborhood} implementation that generates {@link PackedBitVectorSolution} neighbors
+ * by flipping a randomly chosen number of bits.
+ *
+ * Neighbors can also be generated in place using {@link #applyRandomMove(PackedBitVectorSolution)}.
+ *
+ * @author Bruna Dujmović
+ */
+public class PackedBitVectorFlipMultipleNeighborhood implements IMoveNeighborhood<PackedBitVectorSolution> {
+
+    /**
+     * The reused undo record of the last applied move.
+     */
+    private final BitFlipMove<PackedBitVectorSolution> move = new BitFlipMove<>(PackedBitVectorSolution::flip);
+
+    @Override
+    public PackedBitVectorSolution randomNeighbor(PackedBitVectorSolution solution) {
+        int length = solution.getSize();
+        int numberToFlip = ThreadLocalRandom.current().nextInt(length);
+
+        PackedBitVectorSolution neighbor = solution.duplicate();
+
+        for (int i = 0; i < numberToFlip; i++) {
+            neighbor.flip(ThreadLocalRandom.current().nextInt(length));
+        }
+
+        return neighbor;
+    }
+
+    @Override
+    public IMove<PackedBitVectorSolution> applyRandomMove(PackedBitVectorSolution solution) {
+        int length = solution.getSize();
+        int numberToFlip = ThreadLocalRandom.current().nextInt(length);
+
+        move.clear();
+        for (int i = 0; i < numberToFlip; i++) {
+            int randomIndex = ThreadLocalRandom.current().nextInt(length);
+
+            solution.flip(randomIndex);
+            move.record(randomIndex);
+        }
+
+        return move;
+    }
+}
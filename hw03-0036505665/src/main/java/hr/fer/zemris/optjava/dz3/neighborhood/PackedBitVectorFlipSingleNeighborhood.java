@@ -0,0 +1,42 @@
+package hr.fer.zemris.optjava.dz3.neighborhood;
+
+import hr.fer.zemris.optjava.dz3.solution.PackedBitVectorSolution;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An {@link INeighborhood} implementation that generates {@link PackedBitVectorSolution} neighbors
+ * by flipping a single randomly chosen bit.
+ *
+ * Neighbors can also be generated in place using {@link #applyRandomMove(PackedBitVectorSolution)}.
+ *
+ * @author Bruna Dujmović
+ */
+public class PackedBitVectorFlipSingleNeighborhood implements IMoveNeighborhood<PackedBitVectorSolution> {
+
+    /**
+     * The reused undo record of the last applied move.
+     */
+    private final SingleBitFlipMove<PackedBitVectorSolution> move = new SingleBitFlipMove<>(PackedBitVectorSolution::flip);
+
+    @Override
+    public PackedBitVectorSolution randomNeighbor(PackedBitVectorSolution solution) {
+        int randomIndex = ThreadLocalRandom.current().nextInt(solution.getSize());
+
+        PackedBitVectorSolution neighbor = solution.duplicate();
+        neighbor.flip(randomIndex);
+
+        return neighbor;
+    }
+
+    @Override
+    public IMove<PackedBitVectorSolution> applyRandomMove(PackedBitVectorSolution solution) {
+        int length = solution.getSize();
+        int randomIndex = ThreadLocalRandom.current().nextInt(length);
+
+        solution.flip(randomIndex);
+        move.record(randomIndex);
+
+        return move;
+    }
+}
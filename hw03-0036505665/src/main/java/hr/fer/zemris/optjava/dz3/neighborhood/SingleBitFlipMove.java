@@ -0,0 +1,47 @@
+package hr.fer.zemris.optjava.dz3.neighborhood;
+
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An undo record of a move that flipped a single bit of a solution. Undoing the move flips it back.
+ *
+ * A record is reused for every move of a neighborhood - {@link #record(int)} replaces the recorded flip.
+ *
+ * @param <T> the type of the solution the move was applied to
+ * @author Bruna Dujmović
+ */
+final class SingleBitFlipMove<T> implements IMove<T> {
+
+    /**
+     * The operation flipping the bit on the given index of a solution.
+     */
+    private final ObjIntConsumer<T> flip;
+
+    /**
+     * The index of the flipped bit.
+     */
+    private int index;
+
+    /**
+     * Constructs a {@link SingleBitFlipMove}.
+     *
+     * @param flip the operation flipping the bit on the given index of a solution
+     */
+    SingleBitFlipMove(ObjIntConsumer<T> flip) {
+        this.flip = flip;
+    }
+
+    /**
+     * Records a flip of the bit on the given index.
+     *
+     * @param index the index of the flipped bit
+     */
+    void record(int index) {
+        this.index = index;
+    }
+
+    @Override
+    public void undo(T solution) {
+        flip.accept(solution, index);
+    }
+}
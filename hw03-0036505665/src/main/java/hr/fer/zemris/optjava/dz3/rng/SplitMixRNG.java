@@ -0,0 +1,80 @@
+package hr.fer.zemris.optjava.dz3.rng;
+
+/**
+ * A random number generator based on the SplitMix64 algorithm.
+ *
+ * The whole state of the generator is a single {@code long} which can be obtained using
+ * {@link #getState()} and restored using {@link #setState(long)}, so the generator can be
+ * saved and resumed without Java serialization.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class SplitMixRNG {
+
+    /**
+     * The value added to the state for every generated number.
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The current state of the generator.
+     */
+    private long state;
+
+    /**
+     * Constructs a {@link SplitMixRNG} seeded using the current time.
+     */
+    public SplitMixRNG() {
+        this(System.nanoTime() ^ System.currentTimeMillis() * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Constructs a {@link SplitMixRNG} of the given seed.
+     *
+     * @param seed the initial state of the generator
+     */
+    public SplitMixRNG(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Returns the current state of the generator.
+     *
+     * @return the current state of the generator
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Sets the current state of the generator.
+     *
+     * @param state the state to set
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Returns the next uniformly distributed {@code long}.
+     *
+     * @return the next uniformly distributed {@code long}
+     */
+    public long nextLong() {
+        long z = (state += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the next uniformly distributed {@code double} in range [0, 1).
+     *
+     * @return the next uniformly distributed {@code double} in range [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+}
@@ -1,5 +1,8 @@
 package hr.fer.zemris.optjava.dz3.solution;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -43,6 +46,15 @@ public class BitVectorSolution extends SingleObjectiveSolution {
         return bits;
     }
 
+    /**
+     * Flips the bit on the specified index. Flipping the same bit again undoes the change.
+     *
+     * @param index the index of the bit to flip
+     */
+    public void flip(int index) {
+        bits[index] = !bits[index];
+    }
+
     /**
      * Returns a new {@link BitVectorSolution} that is a duplicate of this solution.
      *
@@ -60,4 +72,32 @@ public class BitVectorSolution extends SingleObjectiveSolution {
             bits[i] = ThreadLocalRandom.current().nextBoolean();
         }
     }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(bits.length);
+
+        for (int i = 0; i < bits.length; i += Byte.SIZE) {
+            int packed = 0;
+
+            for (int j = i; j < Math.min(i + Byte.SIZE, bits.length); j++) {
+                packed |= (bits[j] ? 1 : 0) << (j - i);
+            }
+
+            out.writeByte(packed);
+        }
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        readSize(in, bits.length);
+
+        for (int i = 0; i < bits.length; i += Byte.SIZE) {
+            int packed = in.readUnsignedByte();
+
+            for (int j = i; j < Math.min(i + Byte.SIZE, bits.length); j++) {
+                bits[j] = (packed & (1 << (j - i))) != 0;
+            }
+        }
+    }
 }
@@ -1,5 +1,8 @@
 package hr.fer.zemris.optjava.dz3.solution;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -63,4 +66,22 @@ public class DoubleArraySolution extends SingleObjectiveSolution {
             values[i] = ThreadLocalRandom.current().nextDouble(mins[i], maxs[i]);
         }
     }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(values.length);
+
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        readSize(in, values.length);
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+    }
 }
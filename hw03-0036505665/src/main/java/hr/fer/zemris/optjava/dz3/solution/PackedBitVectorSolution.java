@@ -0,0 +1,165 @@
+package hr.fer.zemris.optjava.dz3.solution;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Models an optimization algorithm solution using a bit vector packed into an array of longs.
+ *
+ * Bits are stored most significant first - the bit on index {@code i} is the
+ * {@code (63 - i % 64)}-th bit of the {@code (i / 64)}-th word. This allows a contiguous range
+ * of bits to be read as a single natural binary number using {@link #getBits(int, int)}.
+ *
+ * Unlike {@link BitVectorSolution}, this solution can be modified in place - a call to
+ * {@link #flip(int)} can be undone by flipping the same bit again.
+ *
+ * @author Bruna Dujmović
+ */
+public class PackedBitVectorSolution extends SingleObjectiveSolution {
+
+    /**
+     * An array of words containing the bits of this solution.
+     */
+    private long[] words;
+
+    /**
+     * The number of bits in this solution.
+     */
+    private int size;
+
+    /**
+     * Constructs a {@link PackedBitVectorSolution} of the specified size with all the bits
+     * set to 0.
+     *
+     * @param size the size of the solution (the number of bits)
+     */
+    public PackedBitVectorSolution(int size) {
+        this(new long[(size + Long.SIZE - 1) / Long.SIZE], size);
+    }
+
+    /**
+     * Constructs a {@link PackedBitVectorSolution} out of the given words.
+     *
+     * @param words the words containing the bits of the solution
+     * @param size the size of the solution (the number of bits)
+     */
+    private PackedBitVectorSolution(long[] words, int size) {
+        this.words = words;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of bits in this solution.
+     *
+     * @return the number of bits in this solution
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the array of words containing the bits of this solution.
+     *
+     * @return the array of words containing the bits of this solution
+     */
+    public long[] getWords() {
+        return words;
+    }
+
+    /**
+     * Returns the value of the bit on the specified index.
+     *
+     * @param index the index of the bit
+     * @return {@code true} if the bit on the specified index is set
+     */
+    public boolean get(int index) {
+        return (words[index >>> 6] & (Long.MIN_VALUE >>> index)) != 0;
+    }
+
+    /**
+     * Flips the bit on the specified index. Flipping the same bit again undoes the change.
+     *
+     * @param index the index of the bit to flip
+     */
+    public void flip(int index) {
+        words[index >>> 6] ^= Long.MIN_VALUE >>> index;
+    }
+
+    /**
+     * Returns {@code length} bits starting from the specified offset as a natural binary number.
+     * The bit on index {@code offset} is the most significant bit of the result.
+     *
+     * @param offset the index of the first bit
+     * @param length the number of bits to read, between 1 and 64
+     * @return the specified range of bits as a natural binary number
+     */
+    public long getBits(int offset, int length) {
+        int wordIndex = offset >>> 6;
+        int bitIndex = offset & 63;
+
+        long bits = words[wordIndex] << bitIndex;
+        if (bitIndex + length > Long.SIZE) {
+            bits |= words[wordIndex + 1] >>> (Long.SIZE - bitIndex);
+        }
+
+        return bits >>> (Long.SIZE - length);
+    }
+
+    /**
+     * Copies the bits of the given solution into this solution.
+     *
+     * @param other the solution to copy, must be of the same size
+     * @throws IllegalArgumentException if the solutions are not of the same size
+     */
+    public void copyFrom(PackedBitVectorSolution other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Solutions are not of the same size!");
+        }
+
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Returns a new {@link PackedBitVectorSolution} that is a duplicate of this solution.
+     *
+     * @return a new {@link PackedBitVectorSolution} that is a duplicate of this solution
+     */
+    public PackedBitVectorSolution duplicate() {
+        return new PackedBitVectorSolution(Arrays.copyOf(words, words.length), size);
+    }
+
+    /**
+     * Randomizes the bits of this solution.
+     */
+    public void randomize() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = ThreadLocalRandom.current().nextLong();
+        }
+
+        int tail = size & 63;
+        if (tail != 0) {
+            words[words.length - 1] &= -1L << (Long.SIZE - tail);
+        }
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    @Override
+    public void read(DataInput in) throws IOException {
+        readSize(in, size);
+
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.readLong();
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package hr.fer.zemris.optjava.dz3.solution;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * The base class for representing a single solution of an optimization algorithm.
  */
@@ -15,6 +19,44 @@ public abstract class SingleObjectiveSolution implements Comparable<SingleObject
      */
     double value;
 
+    /**
+     * Returns a new solution that is a duplicate of this solution.
+     *
+     * @return a new solution that is a duplicate of this solution
+     */
+    public abstract SingleObjectiveSolution duplicate();
+
+    /**
+     * Writes the values of this solution to the given output in a compact binary form.
+     *
+     * @param out the output to write to
+     * @throws IOException if an I/O error occurs
+     */
+    public abstract void write(DataOutput out) throws IOException;
+
+    /**
+     * Reads values previously written by {@link #write(DataOutput)} into this solution.
+     *
+     * @param in the input to read from
+     * @throws IOException if an I/O error occurs or the written solution is not of the same size
+     */
+    public abstract void read(DataInput in) throws IOException;
+
+    /**
+     * Checks that a written solution is of the expected size.
+     *
+     * @param in the input to read the size from
+     * @param expectedSize the size of this solution
+     * @throws IOException if an I/O error occurs or the written solution is not of the expected size
+     */
+    static void readSize(DataInput in, int expectedSize) throws IOException {
+        int size = in.readInt();
+
+        if (size != expectedSize) {
+            throw new IOException("Expected a solution of size " + expectedSize + ", got " + size);
+        }
+    }
+
     @Override
     public int compareTo(SingleObjectiveSolution o) {
         return Double.compare(this.fitness, o.fitness);
@@ -96,6 +96,21 @@ public class Chromosome implements Comparable<Chromosome> {
         return new Chromosome(Arrays.copyOf(values, values.length));
     }
 
+    /**
+     * Copies the values and the error of the given chromosome into this chromosome.
+     *
+     * @param other the chromosome to copy, must be of the same size
+     * @throws IllegalArgumentException if the chromosomes are not the same size
+     */
+    public void copyFrom(Chromosome other) {
+        if (other.values.length != values.length) {
+            throw new IllegalArgumentException("Chromosomes are not the same size!");
+        }
+
+        System.arraycopy(other.values, 0, values, 0, values.length);
+        error = other.error;
+    }
+
     @Override
     public int compareTo(Chromosome o) {
         return Double.compare(this.error, o.error);
@@ -42,23 +42,28 @@ public class BLXAlphaCrossover implements ICrossover {
 
     @Override
     public Collection<Chromosome> of(Chromosome firstParent, Chromosome secondParent) {
-        if (firstParent.values.length != secondParent.values.length) {
+        Chromosome child = new Chromosome(firstParent.values.length);
+        of(firstParent, secondParent, child);
+
+        return Collections.singletonList(child);
+    }
+
+    @Override
+    public void of(Chromosome firstParent, Chromosome secondParent, Chromosome child) {
+        if (firstParent.values.length != secondParent.values.length
+                || firstParent.values.length != child.values.length) {
             throw new IllegalArgumentException("Parent chromosomes are not the same size!");
         }
 
-        Chromosome child = new Chromosome(firstParent.values.length);
-
         for (int i = 0; i < firstParent.values.length; i++) {
             double minValue = Math.min(firstParent.values[i], secondParent.values[i]);
-            double maxValue = Math.min(firstParent.values[i], secondParent.values[i]);
+            double maxValue = Math.max(firstParent.values[i], secondParent.values[i]);
             double delta = maxValue - minValue;
 
             double lower = minValue - delta * alpha;
             double upper = maxValue + delta * alpha;
 
-            child.values[i] = ThreadLocalRandom.current().nextDouble() + (upper - lower) + upper;
+            child.values[i] = lower + ThreadLocalRandom.current().nextDouble() * (upper - lower);
         }
-
-        return Collections.singletonList(child);
     }
 }
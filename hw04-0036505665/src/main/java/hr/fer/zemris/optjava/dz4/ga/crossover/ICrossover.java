@@ -9,6 +9,9 @@ import java.util.Collection;
  * Each implementation should provide a method that returns a collection
  * of child chromosomes obtained by crossing two parent chromosomes.
  *
+ * Implementations may also override {@link #of(Chromosome, Chromosome, Chromosome)} to write a child
+ * directly into a recycled chromosome instead of allocating a new one.
+ *
  * @author Bruna Dujmović
  *
  */
@@ -23,4 +26,18 @@ public interface ICrossover {
      * @throws IllegalArgumentException if the parent chromosomes are not the same size
      */
     Collection<Chromosome> of(Chromosome firstParent, Chromosome secondParent);
+
+    /**
+     * Performs the crossover on two given parent chromosomes and writes a single child into the given
+     * chromosome. The default implementation copies the first child returned by
+     * {@link #of(Chromosome, Chromosome)}.
+     *
+     * @param firstParent the first parent
+     * @param secondParent the second parent
+     * @param child the chromosome to write the child into
+     * @throws IllegalArgumentException if the parent and child chromosomes are not the same size
+     */
+    default void of(Chromosome firstParent, Chromosome secondParent, Chromosome child) {
+        child.copyFrom(of(firstParent, secondParent).iterator().next());
+    }
 }
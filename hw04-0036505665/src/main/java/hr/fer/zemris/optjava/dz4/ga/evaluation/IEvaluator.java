@@ -0,0 +1,25 @@
+package hr.fer.zemris.optjava.dz4.ga.evaluation;
+
+import hr.fer.zemris.optjava.dz4.ga.Chromosome;
+
+import java.util.List;
+
+/**
+ * An interface to be implemented by different strategies of evaluating a GA population.
+ * Each implementation should set the error of every chromosome in the population and
+ * return the best one.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public interface IEvaluator {
+
+    /**
+     * Evaluates the given population.
+     *
+     * @param population the population to evaluate
+     * @return the chromosome with the lowest error in the given population
+     * @throws IllegalArgumentException if the population is empty
+     */
+    Chromosome evaluate(List<Chromosome> population);
+}
@@ -0,0 +1,154 @@
+package hr.fer.zemris.optjava.dz4.ga.evaluation;
+
+import hr.fer.zemris.optjava.dz4.ga.Chromosome;
+import hr.fer.zemris.optjava.dz4.ga.function.IFunction;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An {@link IEvaluator} implementation that splits the population into chunks and evaluates
+ * them in parallel using a {@link ForkJoinPool}.
+ *
+ * Workers only write the errors of the chromosomes in their own chunk and share no other
+ * mutable state. The best chromosome is found by reducing the best chromosomes of the chunks,
+ * so the given {@link IFunction} must be safe to call from multiple threads.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class ParallelEvaluator implements IEvaluator {
+
+    /**
+     * The number of chunks per worker thread, for balancing uneven evaluation times.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The minimum number of chromosomes evaluated by a single task.
+     */
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    /**
+     * The function that is being optimized.
+     */
+    private IFunction function;
+
+    /**
+     * The pool whose threads evaluate the chromosomes.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Constructs a {@link ParallelEvaluator} that uses the common {@link ForkJoinPool}.
+     *
+     * @param function the function that is being optimized
+     */
+    public ParallelEvaluator(IFunction function) {
+        this(function, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a {@link ParallelEvaluator} that uses the given {@link ForkJoinPool}.
+     *
+     * @param function the function that is being optimized
+     * @param pool the pool whose threads evaluate the chromosomes
+     */
+    public ParallelEvaluator(IFunction function, ForkJoinPool pool) {
+        this.function = function;
+        this.pool = pool;
+    }
+
+    @Override
+    public Chromosome evaluate(List<Chromosome> population) {
+        if (population.isEmpty()) {
+            throw new IllegalArgumentException("Population must not be empty!");
+        }
+
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, population.size() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+
+        return pool.invoke(new EvaluationTask(function, population, 0, population.size(), chunkSize));
+    }
+
+    /**
+     * A task that evaluates a range of the population and returns the best chromosome in it.
+     */
+    private static class EvaluationTask extends RecursiveTask<Chromosome> {
+
+        /**
+         * The serialization version of this class.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The function that is being optimized.
+         */
+        private final IFunction function;
+
+        /**
+         * The population being evaluated.
+         */
+        private final List<Chromosome> population;
+
+        /**
+         * The index of the first chromosome in the range.
+         */
+        private final int from;
+
+        /**
+         * The index after the last chromosome in the range.
+         */
+        private final int to;
+
+        /**
+         * The maximum number of chromosomes evaluated without splitting the range.
+         */
+        private final int chunkSize;
+
+        /**
+         * Constructs an {@link EvaluationTask} for the given range.
+         *
+         * @param function the function that is being optimized
+         * @param population the population being evaluated
+         * @param from the index of the first chromosome in the range
+         * @param to the index after the last chromosome in the range
+         * @param chunkSize the maximum number of chromosomes evaluated without splitting the range
+         */
+        EvaluationTask(IFunction function, List<Chromosome> population, int from, int to, int chunkSize) {
+            this.function = function;
+            this.population = population;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Chromosome compute() {
+            if (to - from <= chunkSize) {
+                Chromosome best = null;
+
+                for (int i = from; i < to; i++) {
+                    Chromosome chromosome = population.get(i);
+                    chromosome.error = function.valueAt(chromosome.values);
+
+                    if (best == null || chromosome.error < best.error) {
+                        best = chromosome;
+                    }
+                }
+
+                return best;
+            }
+
+            int middle = (from + to) >>> 1;
+            EvaluationTask left = new EvaluationTask(function, population, from, middle, chunkSize);
+            EvaluationTask right = new EvaluationTask(function, population, middle, to, chunkSize);
+
+            left.fork();
+            Chromosome rightBest = right.compute();
+            Chromosome leftBest = left.join();
+
+            return rightBest.error < leftBest.error ? rightBest : leftBest;
+        }
+    }
+}
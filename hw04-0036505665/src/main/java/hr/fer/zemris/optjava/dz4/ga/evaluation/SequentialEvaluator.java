@@ -0,0 +1,49 @@
+package hr.fer.zemris.optjava.dz4.ga.evaluation;
+
+import hr.fer.zemris.optjava.dz4.ga.Chromosome;
+import hr.fer.zemris.optjava.dz4.ga.function.IFunction;
+
+import java.util.List;
+
+/**
+ * An {@link IEvaluator} implementation that evaluates chromosomes one after another
+ * on the calling thread.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class SequentialEvaluator implements IEvaluator {
+
+    /**
+     * The function that is being optimized.
+     */
+    private IFunction function;
+
+    /**
+     * Constructs a {@link SequentialEvaluator} for the given function.
+     *
+     * @param function the function that is being optimized
+     */
+    public SequentialEvaluator(IFunction function) {
+        this.function = function;
+    }
+
+    @Override
+    public Chromosome evaluate(List<Chromosome> population) {
+        if (population.isEmpty()) {
+            throw new IllegalArgumentException("Population must not be empty!");
+        }
+
+        Chromosome best = null;
+
+        for (Chromosome chromosome : population) {
+            chromosome.error = function.valueAt(chromosome.values);
+
+            if (best == null || chromosome.error < best.error) {
+                best = chromosome;
+            }
+        }
+
+        return best;
+    }
+}
@@ -1,7 +1,5 @@
 package hr.fer.zemris.optjava.dz4.ga.function;
 
-import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.RealVector;
 
@@ -17,6 +15,9 @@ import java.util.List;
  * The formula of the transfer function with unknown coefficients a, ..., f is:
  * y(x1, x2, x3, x4, x5) = a * x1 + b * x1^3 * x2 + c * exp(d * x3) * (1 + cos(e * x4)) + f * x4 * x5^2
  *
+ * The system response is stored column-wise in primitive arrays. The terms that do not depend on
+ * the coefficients (x1^3 * x2 and x4 * x5^2) are computed once, when the function is constructed.
+ *
  * @author Bruna Dujmović
  *
  */
@@ -33,24 +34,74 @@ public class TransferFunction implements IFunction {
     private static final int NUMBER_OF_ORIG_VARIABLES = 5;
 
     /**
-     * A matrix of points.
+     * The x1 values of the system response.
+     */
+    private final double[] x1;
+
+    /**
+     * The x1^3 * x2 values of the system response.
+     */
+    private final double[] x1CubedX2;
+
+    /**
+     * The x3 values of the system response.
+     */
+    private final double[] x3;
+
+    /**
+     * The x4 values of the system response.
      */
-    private RealMatrix points;
+    private final double[] x4;
 
     /**
-     * A matrix of function values in the specified {@link #points}.
+     * The x4 * x5^2 values of the system response.
      */
-    private RealVector values;
+    private final double[] x4X5Squared;
+
+    /**
+     * The function values of the system response.
+     */
+    private final double[] y;
+
+    /**
+     * Constructs a {@link TransferFunction} based on the system's response.
+     *
+     * @param points an array of points, each containing the values x1, ..., x5
+     * @param values an array of function values in the specified points
+     * @throws IllegalArgumentException if the number of points and values differ
+     */
+    public TransferFunction(double[][] points, double[] values) {
+        if (points.length != values.length) {
+            throw new IllegalArgumentException("The number of points and values must be the same!");
+        }
+
+        int rows = values.length;
+        x1 = new double[rows];
+        x1CubedX2 = new double[rows];
+        x3 = new double[rows];
+        x4 = new double[rows];
+        x4X5Squared = new double[rows];
+        y = values.clone();
+
+        for (int i = 0; i < rows; i++) {
+            double[] point = points[i];
+
+            x1[i] = point[0];
+            x1CubedX2[i] = point[0] * point[0] * point[0] * point[1];
+            x3[i] = point[2];
+            x4[i] = point[3];
+            x4X5Squared[i] = point[3] * point[4] * point[4];
+        }
+    }
 
     /**
      * Constructs a {@link TransferFunction} based on the system's response.
      *
      * @param points a matrix of points
-     * @param values a matrix of function values in the specified {@link #points}
+     * @param values a vector of function values in the specified points
      */
     public TransferFunction(RealMatrix points, RealVector values) {
-        this.points = points;
-        this.values = values;
+        this(points.getData(), values.toArray());
     }
 
     public int getNumberOfVariables() {
@@ -59,26 +110,19 @@ public class TransferFunction implements IFunction {
 
     @Override
     public double valueAt(double[] point) {
-        RealVector pointVector = new ArrayRealVector(point);
-        double a = pointVector.getEntry(0);
-        double b = pointVector.getEntry(1);
-        double c = pointVector.getEntry(2);
-        double d = pointVector.getEntry(3);
-        double e = pointVector.getEntry(4);
-        double f = pointVector.getEntry(5);
+        double a = point[0];
+        double b = point[1];
+        double c = point[2];
+        double d = point[3];
+        double e = point[4];
+        double f = point[5];
 
         double value = 0.0;
 
-        for (int i = 0, rows = points.getRowDimension(); i < rows; i++) {
-            double x1 = points.getEntry(i, 0);
-            double x2 = points.getEntry(i, 1);
-            double x3 = points.getEntry(i, 2);
-            double x4 = points.getEntry(i, 3);
-            double x5 = points.getEntry(i, 4);
-
-            double difference = a * x1 + b * x1*x1*x1 * x2
-                    + c * Math.exp(d * x3) * (1.0 + Math.cos(e * x4))
-                    + f * x4 * x5*x5 - values.getEntry(i);
+        for (int i = 0, rows = y.length; i < rows; i++) {
+            double difference = a * x1[i] + b * x1CubedX2[i]
+                    + c * Math.exp(d * x3[i]) * (1.0 + Math.cos(e * x4[i]))
+                    + f * x4X5Squared[i] - y[i];
             value += difference * difference;
         }
 
@@ -110,6 +154,6 @@ public class TransferFunction implements IFunction {
             ys[i] = Double.parseDouble(parts[parts.length - 1]);
         }
 
-        return new TransferFunction(new Array2DRowRealMatrix(xes), new ArrayRealVector(ys));
+        return new TransferFunction(xes, ys);
     }
 }
@@ -0,0 +1,85 @@
+package hr.fer.zemris.optjava.dz4.ga.selection;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An implementation of roulette wheel selection using Walker's alias method.
+ *
+ * An alias table is built once per generation in O(n) time, and each chromosome is then
+ * selected in O(1) time using one random index and one random number.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class AliasRouletteWheelSelection extends ProportionalSelection {
+
+    /**
+     * The probability of selecting the index itself rather than its alias.
+     */
+    private double[] probabilities = new double[0];
+
+    /**
+     * The alias of each index.
+     */
+    private int[] aliases = new int[0];
+
+    /**
+     * A helper stack of indexes whose scaled weight is less than 1.
+     */
+    private int[] small = new int[0];
+
+    /**
+     * A helper stack of indexes whose scaled weight is at least 1.
+     */
+    private int[] large = new int[0];
+
+    @Override
+    void prepareWeights(int size, double total) {
+        if (probabilities.length < size) {
+            probabilities = new double[size];
+            aliases = new int[size];
+            small = new int[size];
+            large = new int[size];
+        }
+
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            probabilities[i] = weights[i] * size / total;
+
+            if (probabilities[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            aliases[less] = more;
+            probabilities[more] = probabilities[more] + probabilities[less] - 1.0;
+
+            if (probabilities[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        while (largeCount > 0) {
+            probabilities[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probabilities[small[--smallCount]] = 1.0;
+        }
+    }
+
+    @Override
+    int selectIndex(int size) {
+        int index = ThreadLocalRandom.current().nextInt(size);
+
+        return ThreadLocalRandom.current().nextDouble() < probabilities[index] ? index : aliases[index];
+    }
+}
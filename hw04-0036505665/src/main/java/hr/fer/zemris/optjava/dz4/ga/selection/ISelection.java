@@ -9,6 +9,9 @@ import java.util.List;
  * Each implementation should provide a method for selecting a single
  * chromosome from a given population.
  *
+ * Selections that need information about the whole population (e.g. error sums) can compute it once
+ * per generation in {@link #prepare(List)}, so that each {@link #from(List)} call is cheap.
+ *
  * @author Bruna Dujmović
  *
  */
@@ -22,4 +25,14 @@ public interface ISelection {
      * @return the selected chromosome
      */
     Chromosome from(List<Chromosome> population);
+
+    /**
+     * Prepares this selection for selecting from the given evaluated population. Should be called once
+     * per generation, before the first {@link #from(List)} call, and again whenever the population or
+     * the errors of its chromosomes change. The default implementation does nothing.
+     *
+     * @param population the population that will be selected from
+     */
+    default void prepare(List<Chromosome> population) {
+    }
 }
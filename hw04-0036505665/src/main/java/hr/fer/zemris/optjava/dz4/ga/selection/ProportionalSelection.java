@@ -0,0 +1,92 @@
+package hr.fer.zemris.optjava.dz4.ga.selection;
+
+import hr.fer.zemris.optjava.dz4.ga.Chromosome;
+
+import java.util.List;
+
+/**
+ * A base class for fitness proportional selections.
+ *
+ * The weight of each chromosome is the difference between the largest error in the population and
+ * the chromosome's error, so chromosomes with lower errors are more likely to be selected. If all
+ * chromosomes have the same error, they are selected uniformly.
+ *
+ * The weights are computed in {@link #prepare(List)}. If {@link #from(List)} is called with a population
+ * that was not prepared, or whose size changed since it was prepared, the selection prepares it first.
+ * A population refilled in place with the same size cannot be told apart cheaply, so it must be prepared again.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+abstract class ProportionalSelection implements ISelection {
+
+    /**
+     * The population this selection was last prepared for.
+     */
+    List<Chromosome> preparedPopulation;
+
+    /**
+     * The size of the {@link #preparedPopulation} when it was prepared.
+     */
+    int preparedSize = -1;
+
+    /**
+     * The selection weights of the chromosomes in the {@link #preparedPopulation}.
+     */
+    double[] weights = new double[0];
+
+    @Override
+    public void prepare(List<Chromosome> population) {
+        int size = population.size();
+        if (weights.length < size) {
+            weights = new double[size];
+        }
+
+        double maxError = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            maxError = Math.max(maxError, population.get(i).error);
+        }
+
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            weights[i] = maxError - population.get(i).error;
+            total += weights[i];
+        }
+
+        if (!(total > 0)) {
+            for (int i = 0; i < size; i++) {
+                weights[i] = 1.0;
+            }
+            total = size;
+        }
+
+        preparedPopulation = population;
+        preparedSize = size;
+        prepareWeights(size, total);
+    }
+
+    @Override
+    public Chromosome from(List<Chromosome> population) {
+        if (population != preparedPopulation || population.size() != preparedSize) {
+            prepare(population);
+        }
+
+        return population.get(selectIndex(population.size()));
+    }
+
+    /**
+     * Builds the structures used for selection from the first {@code size} {@link #weights}.
+     *
+     * @param size the size of the population
+     * @param total the sum of the weights
+     */
+    abstract void prepareWeights(int size, double total);
+
+    /**
+     * Selects the index of a chromosome in the prepared population.
+     *
+     * @param size the size of the population
+     * @return the index of the selected chromosome
+     */
+    abstract int selectIndex(int size);
+}
@@ -1,42 +1,52 @@
 package hr.fer.zemris.optjava.dz4.ga.selection;
 
-import hr.fer.zemris.optjava.dz4.ga.Chromosome;
-
-import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * An implementation of roulette wheel selection.
  *
+ * Prefix sums of the selection weights are computed once per generation, and each chromosome
+ * is then selected using binary search in O(log n) time.
+ *
  * @author Bruna Dujmović
  *
  */
-public class RouletteWheelSelection implements ISelection {
+public class RouletteWheelSelection extends ProportionalSelection {
 
-    @Override
-    public Chromosome from(List<Chromosome> population) {
-        double errorSum = 0;
-        double minError = population.get(0).error;
+    /**
+     * The prefix sums of the selection weights.
+     */
+    private double[] prefixSums = new double[0];
 
-        for (Chromosome chromosome : population) {
-            errorSum += chromosome.error;
-
-            if (minError > chromosome.error) {
-                minError = chromosome.error;
-            }
+    @Override
+    void prepareWeights(int size, double total) {
+        if (prefixSums.length < size) {
+            prefixSums = new double[size];
         }
-        errorSum = population.size() * minError - errorSum;
 
-        double accumulatedSum = 0;
-        double randomNumber = ThreadLocalRandom.current().nextDouble() * errorSum;
-        for (Chromosome chromosome : population) {
-            accumulatedSum += minError - chromosome.error;
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += weights[i];
+            prefixSums[i] = sum;
+        }
+    }
 
-            if (randomNumber < accumulatedSum) {
-                return chromosome;
+    @Override
+    int selectIndex(int size) {
+        double randomNumber = ThreadLocalRandom.current().nextDouble() * prefixSums[size - 1];
+
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (prefixSums[middle] > randomNumber) {
+                high = middle;
+            } else {
+                low = middle + 1;
             }
         }
 
-        return population.get(population.size() - 1);
+        return low;
     }
 }
@@ -0,0 +1,82 @@
+package hr.fer.zemris.optjava.dz4.ga.selection;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An implementation of stochastic universal sampling.
+ *
+ * A whole generation of parents is selected with a single sweep over the prefix sums of the selection
+ * weights, using evenly spaced pointers with one random offset. The selected parents are shuffled and
+ * returned one per {@link #from(java.util.List)} call; when they run out, another sweep is made.
+ * A sweep takes O(n) time, so each selection costs O(1) on average.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class StochasticUniversalSampling extends ProportionalSelection {
+
+    /**
+     * The indexes of the parents selected in the last sweep.
+     */
+    private int[] selected = new int[0];
+
+    /**
+     * The number of parents from the last sweep that have not been returned yet.
+     */
+    private int remaining;
+
+    /**
+     * The sum of the selection weights.
+     */
+    private double total;
+
+    @Override
+    void prepareWeights(int size, double total) {
+        if (selected.length < size) {
+            selected = new int[size];
+        }
+
+        this.total = total;
+        this.remaining = 0;
+    }
+
+    @Override
+    int selectIndex(int size) {
+        if (remaining == 0) {
+            sweep(size);
+        }
+
+        return selected[--remaining];
+    }
+
+    /**
+     * Selects {@code size} parents using evenly spaced pointers and shuffles them.
+     *
+     * @param size the size of the population
+     */
+    private void sweep(int size) {
+        double distance = total / size;
+        double pointer = ThreadLocalRandom.current().nextDouble() * distance;
+
+        int index = 0;
+        double sum = weights[0];
+        for (int i = 0; i < size; i++) {
+            while (sum <= pointer && index < size - 1) {
+                sum += weights[++index];
+            }
+
+            selected[i] = index;
+            pointer += distance;
+        }
+
+        for (int i = size - 1; i > 0; i--) {
+            int j = ThreadLocalRandom.current().nextInt(i + 1);
+
+            int temp = selected[i];
+            selected[i] = selected[j];
+            selected[j] = temp;
+        }
+
+        remaining = size;
+    }
+}
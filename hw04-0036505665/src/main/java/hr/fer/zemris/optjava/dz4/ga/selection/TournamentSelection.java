@@ -2,7 +2,7 @@ package hr.fer.zemris.optjava.dz4.ga.selection;
 
 import hr.fer.zemris.optjava.dz4.ga.Chromosome;
 
-import java.util.*;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -12,7 +12,8 @@ import java.util.concurrent.ThreadLocalRandom;
  * For example, if {@link #tournamentSize} is 4 then 4 chromosomes will be chosen from
  * the population to form a tournament, and the best one among them will be selected.
  *
- * This implementation makes sure that all chromosomes in a tournament are unique.
+ * Chromosomes are drawn with replacement, and the best one is tracked while drawing,
+ * so no temporary collection is allocated.
  *
  * @author Bruna Dujmović
  *
@@ -45,13 +46,17 @@ public class TournamentSelection implements ISelection {
 
     @Override
     public Chromosome from(List<Chromosome> population) {
-        List<Chromosome> tournament = new ArrayList<>();
+        int size = population.size();
+        Chromosome best = population.get(ThreadLocalRandom.current().nextInt(size));
 
-        while (tournament.size() < tournamentSize) {
-            int randomIndex = ThreadLocalRandom.current().nextInt(population.size());
-            tournament.add(population.get(randomIndex));
+        for (int i = 1; i < tournamentSize; i++) {
+            Chromosome chromosome = population.get(ThreadLocalRandom.current().nextInt(size));
+
+            if (chromosome.compareTo(best) < 0) {
+                best = chromosome;
+            }
         }
 
-        return Collections.min(tournament);
+        return best;
     }
 }
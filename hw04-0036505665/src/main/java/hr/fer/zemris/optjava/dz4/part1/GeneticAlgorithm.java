@@ -3,12 +3,17 @@ package hr.fer.zemris.optjava.dz4.part1;
 import hr.fer.zemris.optjava.dz4.ga.Chromosome;
 import hr.fer.zemris.optjava.dz4.ga.crossover.BLXAlphaCrossover;
 import hr.fer.zemris.optjava.dz4.ga.crossover.ICrossover;
+import hr.fer.zemris.optjava.dz4.ga.evaluation.IEvaluator;
+import hr.fer.zemris.optjava.dz4.ga.evaluation.ParallelEvaluator;
+import hr.fer.zemris.optjava.dz4.ga.evaluation.SequentialEvaluator;
 import hr.fer.zemris.optjava.dz4.ga.function.IFunction;
 import hr.fer.zemris.optjava.dz4.ga.function.TransferFunction;
 import hr.fer.zemris.optjava.dz4.ga.mutation.GaussianMutation;
 import hr.fer.zemris.optjava.dz4.ga.mutation.IMutation;
+import hr.fer.zemris.optjava.dz4.ga.selection.AliasRouletteWheelSelection;
 import hr.fer.zemris.optjava.dz4.ga.selection.ISelection;
 import hr.fer.zemris.optjava.dz4.ga.selection.RouletteWheelSelection;
+import hr.fer.zemris.optjava.dz4.ga.selection.StochasticUniversalSampling;
 import hr.fer.zemris.optjava.dz4.ga.selection.TournamentSelection;
 
 import java.io.IOException;
@@ -19,11 +24,21 @@ import java.util.*;
 /**
  * An implementation of a generational genetic algorithm with elitism.
  *
+ * The population size stays fixed - each generation consists of the {@link #eliteCount} best chromosomes
+ * of the previous generation and {@code populationSize - eliteCount} children. The chromosomes of two
+ * generations are preallocated and reused, so genes are copied into recycled arrays instead of
+ * allocating new chromosomes.
+ *
  * @author Bruna Dujmović
  *
  */
 public class GeneticAlgorithm {
 
+    /**
+     * The default number of best chromosomes copied into the next generation.
+     */
+    private static final int DEFAULT_ELITE_COUNT = 1;
+
     /**
      * The size of the population.
      */
@@ -55,9 +70,14 @@ public class GeneticAlgorithm {
     private IMutation mutation;
 
     /**
-     * The function that is being optimized.
+     * The evaluator used for calculating the errors of the population.
+     */
+    private IEvaluator evaluator;
+
+    /**
+     * The number of best chromosomes copied into the next generation.
      */
-    private IFunction function;
+    private int eliteCount;
 
     /**
      * Constructs a {@link GeneticAlgorithm} object with the given parameters.
@@ -72,72 +92,126 @@ public class GeneticAlgorithm {
      */
     public GeneticAlgorithm(int populationSize, double minError, int maxIterations, ISelection selection,
                             ICrossover crossover, IMutation mutation, IFunction function) {
+        this(populationSize, minError, maxIterations, selection, crossover, mutation,
+                new SequentialEvaluator(function));
+    }
+
+    /**
+     * Constructs a {@link GeneticAlgorithm} object with the given parameters.
+     *
+     * @param populationSize the size of the population
+     * @param minError the minimum error value which, if reached, will terminate the algorithm
+     * @param maxIterations the maximum number of iterations before the algorithm terminates
+     * @param selection the selection to be used on the population
+     * @param crossover the crossover to be used on the population
+     * @param mutation the mutation to be used on the population
+     * @param evaluator the evaluator used for calculating the errors of the population
+     */
+    public GeneticAlgorithm(int populationSize, double minError, int maxIterations, ISelection selection,
+                            ICrossover crossover, IMutation mutation, IEvaluator evaluator) {
+        this(populationSize, minError, maxIterations, selection, crossover, mutation, evaluator, DEFAULT_ELITE_COUNT);
+    }
+
+    /**
+     * Constructs a {@link GeneticAlgorithm} object with the given parameters.
+     *
+     * @param populationSize the size of the population
+     * @param minError the minimum error value which, if reached, will terminate the algorithm
+     * @param maxIterations the maximum number of iterations before the algorithm terminates
+     * @param selection the selection to be used on the population
+     * @param crossover the crossover to be used on the population
+     * @param mutation the mutation to be used on the population
+     * @param evaluator the evaluator used for calculating the errors of the population
+     * @param eliteCount the number of best chromosomes copied into the next generation
+     * @throws IllegalArgumentException if the elite count is negative or not less than the population size
+     */
+    public GeneticAlgorithm(int populationSize, double minError, int maxIterations, ISelection selection,
+                            ICrossover crossover, IMutation mutation, IEvaluator evaluator, int eliteCount) {
+        if (eliteCount < 0 || eliteCount >= populationSize) {
+            throw new IllegalArgumentException("Elite count must be between 0 and the population size!");
+        }
+
+        this.eliteCount = eliteCount;
         this.populationSize = populationSize;
         this.minError = minError;
         this.maxIterations = maxIterations;
         this.selection = selection;
         this.crossover = crossover;
         this.mutation = mutation;
-        this.function = function;
+        this.evaluator = evaluator;
     }
 
     /**
      * Executes the genetic algorithm.
      */
     public void run() {
-        List<Chromosome> population = new ArrayList<>(populationSize);
+        Chromosome[] current = new Chromosome[populationSize];
+        Chromosome[] next = new Chromosome[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            current[i] = new Chromosome();
+            current[i].randomize(-5, 5);
+            next[i] = new Chromosome();
+        }
 
-        initialize(population);
-        evaluate(population);
+        List<Chromosome> population = Arrays.asList(current);
+        List<Chromosome> nextPopulation = Arrays.asList(next);
+        Chromosome best = evaluator.evaluate(population);
 
         for (int iteration = 0; iteration < maxIterations; iteration++) {
-            Chromosome best = Collections.min(population);
             System.out.println("Solution " + iteration + ": f(" + Arrays.toString(best.values) + ") = " + best.error);
 
             if (best.error <= minError) {
                 return;
             }
 
-            List<Chromosome> newGeneration = new ArrayList<>(populationSize);
-            newGeneration.add(best); // elitism
+            copyElite(current, next);
+            selection.prepare(population);
 
-            for (int i = 0; i < populationSize; i++) {
+            for (int i = eliteCount; i < populationSize; i++) {
                 Chromosome firstParent = selection.from(population);
                 Chromosome secondParent = selection.from(population);
-                
-                Collection<Chromosome> children = crossover.of(firstParent, secondParent);
-                children.forEach(child -> mutation.mutate(child));
 
-                newGeneration.addAll(children);
+                crossover.of(firstParent, secondParent, next[i]);
+                mutation.mutate(next[i]);
             }
 
-            population = newGeneration;
-            evaluate(population);
-        }
-    }
+            best = evaluator.evaluate(nextPopulation.subList(eliteCount, populationSize));
+            if (eliteCount > 0 && next[0].error <= best.error) {
+                best = next[0];
+            }
 
-    /**
-     * Initializes the given population with random chromosomes.
-     *
-     * @param population the population to initialize
-     */
-    private void initialize(Collection<Chromosome> population) {
-        for (int i = 0; i < populationSize; i++) {
-            Chromosome chromosome = new Chromosome();
-            chromosome.randomize(-5, 5);
+            Chromosome[] temp = current;
+            current = next;
+            next = temp;
 
-            population.add(chromosome);
+            List<Chromosome> tempPopulation = population;
+            population = nextPopulation;
+            nextPopulation = tempPopulation;
         }
     }
 
     /**
-     * Evaluates the given population.
+     * Copies the {@link #eliteCount} best chromosomes of the current generation to the beginning
+     * of the next generation, best first.
      *
-     * @param population the population to evaluate
+     * @param current the current generation, already evaluated
+     * @param next the next generation
      */
-    private void evaluate(Collection<Chromosome> population) {
-        for (Chromosome chromosome : population) {
-            chromosome.error = function.valueAt(chromosome.values);
+    private void copyElite(Chromosome[] current, Chromosome[] next) {
+        for (int i = 0; i < eliteCount; i++) {
+            int bestIndex = i;
+
+            for (int j = i + 1; j < current.length; j++) {
+                if (current[j].error < current[bestIndex].error) {
+                    bestIndex = j;
+                }
+            }
+
+            Chromosome temp = current[i];
+            current[i] = current[bestIndex];
+            current[bestIndex] = temp;
+
+            next[i].copyFrom(current[i]);
         }
     }
 
@@ -165,8 +239,9 @@ public class GeneticAlgorithm {
             double sigma = Double.parseDouble(args[4]);
             Path filePath = Paths.get("02-zad-prijenosna.txt");
 
+            IEvaluator evaluator = new ParallelEvaluator(TransferFunction.fromFile(filePath));
             GeneticAlgorithm ga = new GeneticAlgorithm(populationSize, minError, maxIterations, selection,
-                    new BLXAlphaCrossover(), new GaussianMutation(sigma), TransferFunction.fromFile(filePath));
+                    new BLXAlphaCrossover(), new GaussianMutation(sigma), evaluator);
 
             ga.run();
 
@@ -189,6 +264,14 @@ public class GeneticAlgorithm {
             return new RouletteWheelSelection();
         }
 
+        if (selectionType.equals("aliasRouletteWheel")) {
+            return new AliasRouletteWheelSelection();
+        }
+
+        if (selectionType.equals("sus")) {
+            return new StochasticUniversalSampling();
+        }
+
         if (selectionType.startsWith("tournament:")) {
             int tournamentSize = Integer.parseInt(selectionType.split(":")[1]);
             return new TournamentSelection(tournamentSize);
@@ -0,0 +1,450 @@
+package hr.fer.zemris.optjava.dz4.part2;
+
+import java.util.Arrays;
+
+/**
+ * Repair and improvement operators for {@link Chromosome} objects, and a lower bound on the number of columns.
+ *
+ * The operators work with a pool of free elements, which are not in any column:
+ * <ul>
+ *     <li>{@link #bestFitDecreasing(Chromosome, int[], int)} puts each free element, highest first,
+ *     into the fullest column it fits in.</li>
+ *     <li>{@link #replaceDominated(Chromosome, int[], int)} uses the Martello–Toth dominance criterion, as in
+ *     Falkenauer's grouping GA: up to two elements of a column are replaced with up to two free elements whose
+ *     total height is larger but still fits. The column gets fuller and the free elements get smaller.</li>
+ *     <li>{@link #emptyLeastFilled(Chromosome, int[])} is a local search that frees the elements of the least
+ *     filled column and tries to spread them over the other columns using the two operators above.</li>
+ * </ul>
+ *
+ * Since element heights are bounded by {@link Chromosome#MAX_HEIGHT}, free elements are counted by height,
+ * and the best single element and the best pair of elements that fit in each possible gap are kept in tables.
+ * This makes evaluating a replacement O(1).
+ *
+ * An instance keeps helper arrays, so it should be used by one thread only.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class BinPackingHeuristics {
+
+    /**
+     * The maximum height of a column.
+     */
+    private static final int CAPACITY = Chromosome.MAX_HEIGHT;
+
+    /**
+     * The heights of all elements, indexed by element id.
+     */
+    private final int[] heights;
+
+    /**
+     * The number of free elements of each height.
+     */
+    private final int[] freeCounts;
+
+    /**
+     * The largest height of a free element not higher than the index.
+     */
+    private final int[] bestSingle;
+
+    /**
+     * The largest total height of two free elements not higher than the index.
+     */
+    private final int[] bestPairSum;
+
+    /**
+     * The height of the higher element of the pair in {@link #bestPairSum}.
+     */
+    private final int[] bestPairFirst;
+
+    /**
+     * The first column with each remaining height, used by best fit.
+     */
+    private final int[] bucketHeads;
+
+    /**
+     * The next column with the same remaining height, used by best fit.
+     */
+    private final int[] bucketNext;
+
+    /**
+     * A helper array used for sorting element ids.
+     */
+    private final int[] sortBuffer;
+
+    /**
+     * A helper array with the sorted position of each height, used for sorting element ids.
+     */
+    private final int[] sortPositions;
+
+    /**
+     * The free elements during a call to {@link #replaceDominated(Chromosome, int[], int)}.
+     */
+    private int[] free;
+
+    /**
+     * The number of {@link #free} elements.
+     */
+    private int freeCount;
+
+    /**
+     * Constructs {@link BinPackingHeuristics} for elements of the given heights.
+     *
+     * @param heights the heights of all elements, indexed by element id
+     */
+    public BinPackingHeuristics(int[] heights) {
+        this.heights = heights;
+        this.freeCounts = new int[CAPACITY + 1];
+        this.bestSingle = new int[CAPACITY + 1];
+        this.bestPairSum = new int[CAPACITY + 1];
+        this.bestPairFirst = new int[CAPACITY + 1];
+        this.bucketHeads = new int[CAPACITY + 1];
+        this.bucketNext = new int[heights.length];
+        this.sortBuffer = new int[heights.length];
+        this.sortPositions = new int[CAPACITY + 2];
+    }
+
+    /**
+     * Puts the given free elements into the chromosome using dominance replacement, and the remaining
+     * ones using best fit decreasing.
+     *
+     * @param chromosome the chromosome to repair
+     * @param ids the ids of the free elements, changed by this method
+     * @param count the number of free elements
+     */
+    public void repair(Chromosome chromosome, int[] ids, int count) {
+        count = replaceDominated(chromosome, ids, count);
+        bestFitDecreasing(chromosome, ids, count);
+    }
+
+    /**
+     * Tries to remove the least filled column by freeing its elements, improving the other columns with
+     * dominance replacement and putting the remaining free elements back using best fit decreasing.
+     * The number of columns never increases.
+     *
+     * @param chromosome the chromosome to improve
+     * @param ids a helper array with room for all elements
+     */
+    public void emptyLeastFilled(Chromosome chromosome, int[] ids) {
+        if (chromosome.getColumnCount() < 2) {
+            return;
+        }
+
+        int leastFilled = 0;
+        for (int i = 1; i < chromosome.getColumnCount(); i++) {
+            if (chromosome.columns.get(i).getCurrentHeight() < chromosome.columns.get(leastFilled).getCurrentHeight()) {
+                leastFilled = i;
+            }
+        }
+
+        int count = chromosome.remove(leastFilled, ids, 0);
+        repair(chromosome, ids, count);
+    }
+
+    /**
+     * Replaces up to two elements of a column with up to two free elements of larger total height
+     * that fit in the column, for as long as some column can be filled more.
+     *
+     * @param chromosome the chromosome to improve
+     * @param ids the ids of the free elements, changed by this method
+     * @param count the number of free elements
+     * @return the number of free elements after the replacements
+     */
+    public int replaceDominated(Chromosome chromosome, int[] ids, int count) {
+        free = ids;
+        freeCount = count;
+
+        Arrays.fill(freeCounts, 0);
+        for (int i = 0; i < count; i++) {
+            freeCounts[heights[ids[i]]]++;
+        }
+        updateTables();
+
+        boolean improved = true;
+        while (improved && freeCount > 0) {
+            improved = false;
+
+            for (int index = 0; index < chromosome.getColumnCount() && freeCount > 0; index++) {
+                while (freeCount > 0 && improveColumn(chromosome, index)) {
+                    improved = true;
+                }
+            }
+        }
+
+        free = null;
+        return freeCount;
+    }
+
+    /**
+     * Puts the given elements into the chromosome from the highest to the lowest, each into the column with
+     * the least remaining height it fits in, or into a new column if it does not fit anywhere.
+     *
+     * @param chromosome the chromosome to put the elements into
+     * @param ids the ids of the elements
+     * @param count the number of elements
+     */
+    public void bestFitDecreasing(Chromosome chromosome, int[] ids, int count) {
+        int sorted = sortDecreasing(ids, count);
+
+        Arrays.fill(bucketHeads, -1);
+        for (int index = 0; index < chromosome.getColumnCount(); index++) {
+            push(index, chromosome.columns.get(index).getRemainingHeight());
+        }
+
+        for (int i = 0; i < sorted; i++) {
+            int id = sortBuffer[i];
+            int height = heights[id];
+
+            int remaining = height;
+            while (remaining <= CAPACITY && bucketHeads[remaining] < 0) {
+                remaining++;
+            }
+
+            int index;
+            if (remaining > CAPACITY) {
+                index = chromosome.addToNewColumn(id);
+                remaining = CAPACITY;
+            } else {
+                index = bucketHeads[remaining];
+                bucketHeads[remaining] = bucketNext[index];
+                chromosome.add(id, index);
+            }
+
+            push(index, remaining - height);
+        }
+    }
+
+    /**
+     * Computes the L2 lower bound of Martello and Toth on the number of columns needed for the given elements.
+     *
+     * For each threshold {@code a} up to half the capacity, elements higher than half the capacity need
+     * a column each, and the elements between {@code a} and half the capacity must fit into the room
+     * left next to the elements higher than half the capacity (those higher than {@code capacity - a}
+     * leave no usable room) or into additional columns.
+     *
+     * @param heights the heights of the elements
+     * @param capacity the maximum height of a column
+     * @return a lower bound on the number of columns
+     */
+    public static int lowerBound(int[] heights, int capacity) {
+        int[] counts = new int[capacity + 1];
+        long total = 0;
+        for (int height : heights) {
+            if (height <= 0 || height > capacity) {
+                throw new IllegalArgumentException("Invalid element height: " + height);
+            }
+
+            counts[height]++;
+            total += height;
+        }
+
+        int bound = (int) ((total + capacity - 1) / capacity);
+
+        for (int threshold = 0; 2 * threshold <= capacity; threshold++) {
+            int large = 0;
+            int medium = 0;
+            long mediumHeight = 0;
+            long smallHeight = 0;
+
+            for (int height = Math.max(threshold, 1); height <= capacity; height++) {
+                if (height > capacity - threshold) {
+                    large += counts[height];
+                } else if (2 * height > capacity) {
+                    medium += counts[height];
+                    mediumHeight += (long) counts[height] * height;
+                } else {
+                    smallHeight += (long) counts[height] * height;
+                }
+            }
+
+            long overflow = smallHeight - ((long) medium * capacity - mediumHeight);
+            long extra = overflow > 0 ? (overflow + capacity - 1) / capacity : 0;
+
+            bound = (int) Math.max(bound, large + medium + extra);
+        }
+
+        return bound;
+    }
+
+    /**
+     * Applies the replacement that fills the column on the given index the most, if there is one.
+     *
+     * @param chromosome the chromosome containing the column
+     * @param index the index of the column
+     * @return {@code true} if the column was changed
+     */
+    private boolean improveColumn(Chromosome chromosome, int index) {
+        BoxColumn column = chromosome.columns.get(index);
+        int remaining = column.getRemainingHeight();
+        int size = column.size();
+
+        int bestGain = gain(remaining, 0);
+        int bestFirst = -1;
+        int bestSecond = -1;
+
+        for (int i = 0; i < size; i++) {
+            int removed = column.heightAt(i);
+
+            int singleGain = gain(remaining + removed, removed);
+            if (singleGain > bestGain) {
+                bestGain = singleGain;
+                bestFirst = i;
+                bestSecond = -1;
+            }
+
+            for (int j = i + 1; j < size; j++) {
+                int pairRemoved = removed + column.heightAt(j);
+
+                int pairGain = gain(remaining + pairRemoved, pairRemoved);
+                if (pairGain > bestGain) {
+                    bestGain = pairGain;
+                    bestFirst = i;
+                    bestSecond = j;
+                }
+            }
+        }
+
+        if (bestGain <= 0) {
+            return false;
+        }
+
+        int removedHeight = 0;
+        if (bestSecond >= 0) {
+            removedHeight += freeElement(chromosome.removeElement(index, bestSecond));
+        }
+        if (bestFirst >= 0) {
+            removedHeight += freeElement(chromosome.removeElement(index, bestFirst));
+        }
+
+        int gap = remaining + removedHeight;
+        if (bestSingle[gap] >= bestPairSum[gap]) {
+            chromosome.add(takeFree(bestSingle[gap]), index);
+        } else {
+            int first = bestPairFirst[gap];
+            int second = bestPairSum[gap] - first;
+
+            chromosome.add(takeFree(first), index);
+            chromosome.add(takeFree(second), index);
+        }
+
+        updateTables();
+        return true;
+    }
+
+    /**
+     * Returns how much a column gets filled by replacing elements of the given total height with the best
+     * one or two free elements fitting in the given gap.
+     *
+     * @param gap the room available after removing the elements
+     * @param removed the total height of the removed elements
+     * @return the increase of the column's height
+     */
+    private int gain(int gap, int removed) {
+        return Math.max(bestSingle[gap], bestPairSum[gap]) - removed;
+    }
+
+    /**
+     * Adds the given element to the free elements.
+     *
+     * @param id the id of the element
+     * @return the height of the element
+     */
+    private int freeElement(int id) {
+        free[freeCount++] = id;
+        freeCounts[heights[id]]++;
+
+        return heights[id];
+    }
+
+    /**
+     * Removes a free element of the given height from the free elements.
+     *
+     * @param height the height of the element
+     * @return the id of the removed element
+     */
+    private int takeFree(int height) {
+        for (int i = 0; i < freeCount; i++) {
+            int id = free[i];
+
+            if (heights[id] == height) {
+                free[i] = free[--freeCount];
+                freeCounts[height]--;
+                return id;
+            }
+        }
+
+        throw new IllegalStateException("No free element of height " + height);
+    }
+
+    /**
+     * Recomputes {@link #bestSingle}, {@link #bestPairSum} and {@link #bestPairFirst} from {@link #freeCounts}.
+     */
+    private void updateTables() {
+        int best = 0;
+        for (int gap = 0; gap <= CAPACITY; gap++) {
+            if (freeCounts[gap] > 0) {
+                best = gap;
+            }
+            bestSingle[gap] = best;
+        }
+
+        for (int gap = 0; gap <= CAPACITY; gap++) {
+            int bestSum = 0;
+            int bestFirst = 0;
+
+            for (int first = gap; first > 0 && 2 * first > bestSum; first--) {
+                if (freeCounts[first] == 0) {
+                    continue;
+                }
+
+                int second = bestSingle[Math.min(gap - first, first)];
+                if (second == first && freeCounts[first] < 2) {
+                    second = bestSingle[first - 1];
+                }
+
+                if (second > 0 && first + second > bestSum) {
+                    bestSum = first + second;
+                    bestFirst = first;
+                }
+            }
+
+            bestPairSum[gap] = bestSum;
+            bestPairFirst[gap] = bestFirst;
+        }
+    }
+
+    /**
+     * Sorts the given element ids by height from highest to lowest into {@link #sortBuffer}.
+     *
+     * @param ids the ids to sort
+     * @param count the number of ids
+     * @return the number of sorted ids
+     */
+    private int sortDecreasing(int[] ids, int count) {
+        int[] positions = sortPositions;
+        Arrays.fill(positions, 0);
+        for (int i = 0; i < count; i++) {
+            positions[CAPACITY - heights[ids[i]] + 1]++;
+        }
+        for (int i = 1; i < positions.length; i++) {
+            positions[i] += positions[i - 1];
+        }
+
+        for (int i = 0; i < count; i++) {
+            sortBuffer[positions[CAPACITY - heights[ids[i]]]++] = ids[i];
+        }
+
+        return count;
+    }
+
+    /**
+     * Adds the column on the given index to the best fit bucket of the given remaining height.
+     *
+     * @param index the index of the column
+     * @param remaining the remaining height of the column
+     */
+    private void push(int index, int remaining) {
+        bucketNext[index] = bucketHeads[remaining];
+        bucketHeads[remaining] = index;
+    }
+}
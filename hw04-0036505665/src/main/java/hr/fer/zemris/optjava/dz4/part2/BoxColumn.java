@@ -1,17 +1,23 @@
 package hr.fer.zemris.optjava.dz4.part2;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.Arrays;
 
 /**
  * Models a box column to be used in the {@link BoxFilling} algorithm.
  *
+ * The elements are stored by their ids in a small array, together with their heights,
+ * so columns can be copied and scanned without touching {@link BoxElement} objects.
+ *
  * @author Bruna Dujmović
  *
  */
 public class BoxColumn {
 
+    /**
+     * The initial capacity of the element arrays.
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
     /**
      * The maximum height of this column.
      */
@@ -23,9 +29,19 @@ public class BoxColumn {
     private int currentHeight;
 
     /**
-     * A list of elements contained in this column.
+     * The ids of the elements contained in this column.
+     */
+    private int[] ids;
+
+    /**
+     * The heights of the elements contained in this column, parallel to {@link #ids}.
+     */
+    private int[] heights;
+
+    /**
+     * The number of elements contained in this column.
      */
-    private List<BoxElement> elements;
+    private int size;
 
     /**
      * Constructs a {@link BoxColumn} of the given maximum height.
@@ -33,9 +49,10 @@ public class BoxColumn {
      * @param maxHeight the maximum height of this column
      */
     public BoxColumn(int maxHeight) {
-        this.elements = new ArrayList<>();
         this.maxHeight = maxHeight;
         this.currentHeight = 0;
+        this.ids = new int[INITIAL_CAPACITY];
+        this.heights = new int[INITIAL_CAPACITY];
     }
 
     /**
@@ -47,6 +64,24 @@ public class BoxColumn {
         return maxHeight;
     }
 
+    /**
+     * Returns the current height of this column.
+     *
+     * @return the current height of this column
+     */
+    public int getCurrentHeight() {
+        return currentHeight;
+    }
+
+    /**
+     * Returns the height that can still be added to this column.
+     *
+     * @return the remaining height of this column
+     */
+    public int getRemainingHeight() {
+        return maxHeight - currentHeight;
+    }
+
     /**
      * Adds the given {@link BoxElement} to this column.
      *
@@ -54,27 +89,83 @@ public class BoxColumn {
      * @return {@code true} if the element was successfully added
      */
     public boolean add(BoxElement element) {
-        if (currentHeight + element.getHeight() > maxHeight) {
+        return add(element.getId(), element.getHeight());
+    }
+
+    /**
+     * Adds the element with the given id and height to this column.
+     *
+     * @param id the id of the element
+     * @param height the height of the element
+     * @return {@code true} if the element was successfully added
+     */
+    public boolean add(int id, int height) {
+        if (currentHeight + height > maxHeight) {
             return false;
         }
 
-        elements.add(element);
-        currentHeight += element.getHeight();
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, 2 * size);
+            heights = Arrays.copyOf(heights, 2 * size);
+        }
+
+        ids[size] = id;
+        heights[size] = height;
+        size++;
+        currentHeight += height;
 
         return true;
     }
 
     /**
-     * Removes the {@link BoxElement} on the specified index.
+     * Removes the element on the specified index. The last element is moved to its place.
      *
      * @param index the index of the element to remove
      */
     public void remove(int index) {
-        if (index < 0 || index > elements.size()) {
+        if (index < 0 || index >= size) {
             throw new IllegalArgumentException();
         }
 
-        elements.remove(index);
+        currentHeight -= heights[index];
+        size--;
+        ids[index] = ids[size];
+        heights[index] = heights[size];
+    }
+
+    /**
+     * Removes all elements from this column.
+     */
+    public void clear() {
+        size = 0;
+        currentHeight = 0;
+    }
+
+    /**
+     * Makes this column a copy of the given column.
+     *
+     * @param other the column to copy
+     */
+    public void copyFrom(BoxColumn other) {
+        if (ids.length < other.size) {
+            ids = new int[other.ids.length];
+            heights = new int[other.ids.length];
+        }
+
+        System.arraycopy(other.ids, 0, ids, 0, other.size);
+        System.arraycopy(other.heights, 0, heights, 0, other.size);
+        maxHeight = other.maxHeight;
+        currentHeight = other.currentHeight;
+        size = other.size;
+    }
+
+    /**
+     * Returns the number of elements contained in this column.
+     *
+     * @return the number of elements contained in this column
+     */
+    public int size() {
+        return size;
     }
 
     /**
@@ -83,26 +174,27 @@ public class BoxColumn {
      * @return {@code true} if this column contains no elements
      */
     public boolean isEmpty() {
-        return elements.isEmpty();
+        return size == 0;
     }
 
     /**
-     * Returns {@code true} if this column contains the specified {@link BoxElement}.
+     * Returns the id of the element on the specified index.
      *
-     * @param element the element to check
-     * @return {@code true} if this column contains the specified {@link BoxElement}
+     * @param index the index of the element
+     * @return the id of the element on the specified index
      */
-    public boolean contains(BoxElement element) {
-        return elements.contains(element);
+    public int idAt(int index) {
+        return ids[index];
     }
 
     /**
-     * Returns a list of elements contained in this column.
+     * Returns the height of the element on the specified index.
      *
-     * @return a list of elements contained in this column
+     * @param index the index of the element
+     * @return the height of the element on the specified index
      */
-    public List<BoxElement> getElements() {
-        return elements;
+    public int heightAt(int index) {
+        return heights[index];
     }
 
     @Override
@@ -111,20 +203,25 @@ public class BoxColumn {
         if (o == null || getClass() != o.getClass()) return false;
         BoxColumn column = (BoxColumn) o;
         return currentHeight == column.currentHeight &&
-                Objects.equals(elements, column.elements);
+                Arrays.equals(ids, 0, size, column.ids, 0, column.size);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(currentHeight, elements);
+        int result = currentHeight;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + ids[i];
+        }
+
+        return result;
     }
 
     @Override
     public String toString() {
         StringBuilder s = new StringBuilder();
 
-        for (BoxElement element : elements) {
-            s.append(element.toString()).append(" ");
+        for (int i = 0; i < size; i++) {
+            s.append(heights[i]).append(" ");
         }
 
         return s.toString();
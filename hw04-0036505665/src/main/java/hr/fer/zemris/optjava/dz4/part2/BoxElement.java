@@ -8,20 +8,36 @@ package hr.fer.zemris.optjava.dz4.part2;
  */
 public class BoxElement {
 
+    /**
+     * The id of this element, its index in the problem instance.
+     */
+    private int id;
+
     /**
      * The height of this element.
      */
     private int height;
 
     /**
-     * Constructs a {@link BoxElement} of the specified height.
+     * Constructs a {@link BoxElement} with the given id and of the specified height.
      *
+     * @param id the id of this element
      * @param height the height of this element
      */
-    public BoxElement(int height) {
+    public BoxElement(int id, int height) {
+        this.id = id;
         this.height = height;
     }
 
+    /**
+     * Returns the id of this element.
+     *
+     * @return the id of this element
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Returns the height of this element.
      *
@@ -5,11 +5,20 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * An algorithm for solving the Box Filling problem.
  *
+ * This is a steady-state genetic algorithm: each iteration produces a single child, evaluates only the child
+ * and puts it in place of a chromosome chosen by the replacement tournament. The population can be split
+ * into several islands that evolve in parallel and periodically send a copy of their best chromosome
+ * to the next island in a ring.
+ *
+ * Optionally, children are repaired with {@link BinPackingHeuristics} instead of first fit decreasing, and
+ * improved by local search. The algorithm stops as soon as a solution reaches the L2 lower bound.
+ *
  * @author Bruna Dujmović
  *
  */
@@ -26,17 +35,27 @@ public class BoxFilling {
     private static final double MUTATION_PROBABILITY = 0.2;
 
     /**
-     * A population of elements to optimize.
+     * The default number of iterations between two migrations.
      */
-    private List<BoxElement> elements;
+    private static final int DEFAULT_MIGRATION_INTERVAL = 1000;
 
     /**
-     * The size of the population.
+     * The probability of applying local search to a child when heuristics are used.
+     */
+    private static final double LOCAL_SEARCH_PROBABILITY = 0.1;
+
+    /**
+     * The heights of the elements, indexed by element id.
+     */
+    private int[] heights;
+
+    /**
+     * The size of the population of each island.
      */
     private int populationSize;
 
     /**
-     * The maximum number of iterations before the algorithm terminates.
+     * The maximum number of iterations of each island before the algorithm terminates.
      */
     private int maxIterations;
 
@@ -62,7 +81,37 @@ public class BoxFilling {
     private int acceptableSize;
 
     /**
-     * Constructs a {@link BoxFilling} object.
+     * The number of islands evolving in parallel.
+     */
+    private int islandCount;
+
+    /**
+     * The number of iterations between two migrations.
+     */
+    private int migrationInterval;
+
+    /**
+     * {@code true} if {@link BinPackingHeuristics} should be used for repair and local search.
+     */
+    private boolean useHeuristics;
+
+    /**
+     * A lower bound on the number of columns; a solution reaching it is optimal.
+     */
+    private int lowerBound;
+
+    /**
+     * The best chromosome found by any island.
+     */
+    private Chromosome best;
+
+    /**
+     * The fitness of {@link #best}, readable without locking.
+     */
+    private volatile double bestFitness;
+
+    /**
+     * Constructs a {@link BoxFilling} object with a single island.
      *
      * @param elements a population of elements to optimize
      * @param populationSize the size of the population
@@ -74,172 +123,353 @@ public class BoxFilling {
      */
     public BoxFilling(List<BoxElement> elements, int populationSize, int maxIterations, int selectionTournamentSize,
                       int replacementTournamentSize, boolean conditionalReplace, int acceptableSize) {
-        this.elements = elements;
+        this(elements, populationSize, maxIterations, selectionTournamentSize, replacementTournamentSize,
+                conditionalReplace, acceptableSize, 1, DEFAULT_MIGRATION_INTERVAL, false);
+    }
+
+    /**
+     * Constructs a {@link BoxFilling} object.
+     *
+     * @param elements a population of elements to optimize
+     * @param populationSize the size of the population of each island
+     * @param maxIterations the maximum number of iterations of each island before the algorithm terminates
+     * @param selectionTournamentSize the selection tournament size
+     * @param replacementTournamentSize the replacement tournament size - for finding the worst chromosome
+     * @param conditionalReplace {@code true} if conditional replace should be performed
+     * @param acceptableSize the acceptable size of the solution
+     * @param islandCount the number of islands evolving in parallel
+     * @param migrationInterval the number of iterations between two migrations
+     * @param useHeuristics {@code true} if {@link BinPackingHeuristics} should be used for repair and local search
+     */
+    public BoxFilling(List<BoxElement> elements, int populationSize, int maxIterations, int selectionTournamentSize,
+                      int replacementTournamentSize, boolean conditionalReplace, int acceptableSize,
+                      int islandCount, int migrationInterval, boolean useHeuristics) {
+        if (populationSize < 2 || islandCount < 1 || migrationInterval < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.heights = new int[elements.size()];
         this.populationSize = populationSize;
         this.maxIterations = maxIterations;
         this.selectionTournamentSize = selectionTournamentSize;
         this.replacementTournamentSize = replacementTournamentSize;
         this.conditionalReplace = conditionalReplace;
         this.acceptableSize = acceptableSize;
+        this.islandCount = islandCount;
+        this.migrationInterval = migrationInterval;
+        this.useHeuristics = useHeuristics;
+
+        for (BoxElement element : elements) {
+            heights[element.getId()] = element.getHeight();
+        }
+        this.lowerBound = BinPackingHeuristics.lowerBound(heights, Chromosome.MAX_HEIGHT);
     }
 
     /**
      * Executes the algorithm.
      */
     public void run() {
-        List<Chromosome> population = new ArrayList<>(populationSize);
-
-        initialize(population);
-        evaluate(population);
-
-        Chromosome best = null;
+        best = null;
+        bestFitness = Double.POSITIVE_INFINITY;
 
-        for (int iteration = 0; iteration < maxIterations; iteration++) {
-            Chromosome populationBest = Collections.min(population, Chromosome::compareTo);
-            if (best == null || populationBest.fitness > best.fitness) {
-                System.out.println(populationBest.toString() + "Fitness: " + populationBest.fitness);
-                best = populationBest;
-            }
-
-            if (best.fitness <= acceptableSize) {
-                return;
-            }
+        Island[] islands = new Island[islandCount];
+        for (int i = 0; i < islandCount; i++) {
+            islands[i] = new Island();
+        }
+        for (int i = 0; i < islandCount; i++) {
+            islands[i].neighbour = islands[(i + 1) % islandCount];
+        }
 
-            Chromosome firstParent = selectFrom(population, selectionTournamentSize, true);
-            Chromosome secondParent = selectFrom(population, selectionTournamentSize, true);
+        if (islandCount == 1) {
+            islands[0].run();
+            return;
+        }
 
-            Chromosome child = crossoverOf(firstParent, secondParent);
-            mutate(child);
+        Thread[] threads = new Thread[islandCount];
+        for (int i = 0; i < islandCount; i++) {
+            threads[i] = new Thread(islands[i]);
+            threads[i].start();
+        }
 
-            Chromosome worst = selectFrom(population, replacementTournamentSize, false);
-            if (!conditionalReplace || child.fitness >= worst.fitness) {
-                population.add(population.indexOf(worst), child);
+        try {
+            for (Thread thread : threads) {
+                thread.join();
             }
-
-            evaluate(population);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * Initializes the given population with random chromosomes.
+     * Returns {@code true} if a chromosome of acceptable size, or one reaching the lower bound, has been found.
      *
-     * @param population the population to initialize
+     * @return {@code true} if a chromosome of acceptable size or an optimal chromosome has been found
      */
-    private void initialize(Collection<Chromosome> population) {
-        for (int i = 0; i < populationSize; i++) {
-            population.add(new Chromosome(elements));
-        }
+    private boolean isSolved() {
+        return bestFitness <= Math.max(acceptableSize, lowerBound);
     }
 
     /**
-     * Evaluates the given population.
+     * Records the given chromosome as the best one if it is better than the current best.
      *
-     * @param population the population to evaluate
+     * @param chromosome the chromosome to offer
      */
-    private void evaluate(Collection<Chromosome> population) {
-        for (Chromosome chromosome : population) {
-            chromosome.fitness = chromosome.columns.size();
+    private synchronized void offerBest(Chromosome chromosome) {
+        if (chromosome.fitness >= bestFitness) {
+            return;
+        }
+
+        if (best == null) {
+            best = new Chromosome(heights);
+        }
+        best.copyFrom(chromosome);
+        bestFitness = best.fitness;
+
+        System.out.println(best.toString() + "Fitness: " + best.fitness);
+        if (best.fitness <= lowerBound) {
+            System.out.println("Lower bound " + lowerBound + " reached, the solution is optimal.");
         }
     }
 
     /**
-     * Selects a chromosome from the given population using tournament selection.
+     * Evaluates the given chromosome.
      *
-     * @param population the population to select from
-     * @param tournamentSize the size of the tournament
-     * @param findBest {@code true} if the best chromosome should be selected from the tournament,
-     *                 {@code false} if the worst chromosome should be selected from the tournament
-     * @return the selected chromosome
+     * @param chromosome the chromosome to evaluate
      */
-    private Chromosome selectFrom(List<Chromosome> population, int tournamentSize, boolean findBest) {
-        List<Chromosome> tournament = new ArrayList<>();
+    private static void evaluate(Chromosome chromosome) {
+        chromosome.fitness = chromosome.getColumnCount();
+    }
 
-        while (tournament.size() < tournamentSize) {
-            int randomIndex = ThreadLocalRandom.current().nextInt(population.size());
-            tournament.add(population.get(randomIndex));
+    /**
+     * A single steady-state population. Each island uses its own helper arrays,
+     * so islands can run in separate threads.
+     */
+    private class Island implements Runnable {
+
+        /**
+         * The population of this island.
+         */
+        private Chromosome[] population;
+
+        /**
+         * The chromosome the next child is built in; swapped with the replaced chromosome.
+         */
+        private Chromosome child;
+
+        /**
+         * The index of the best chromosome in the {@link #population}.
+         */
+        private int bestIndex;
+
+        /**
+         * A helper array for collecting ids of unassigned elements.
+         */
+        private int[] unassigned;
+
+        /**
+         * The repair and local search operators, or {@code null} if heuristics are not used.
+         */
+        private BinPackingHeuristics heuristics;
+
+        /**
+         * Migrants sent to this island by its neighbour.
+         */
+        private Queue<Chromosome> immigrants;
+
+        /**
+         * The island this island sends its migrants to.
+         */
+        private Island neighbour;
+
+        /**
+         * Constructs an {@link Island} with a random population.
+         */
+        Island() {
+            this.population = new Chromosome[populationSize];
+            this.child = new Chromosome(heights);
+            this.unassigned = new int[heights.length];
+            this.immigrants = new ConcurrentLinkedQueue<>();
+            this.heuristics = useHeuristics ? new BinPackingHeuristics(heights) : null;
         }
 
-        if (findBest) {
-            return Collections.min(tournament, Chromosome::compareTo);
-        } else {
-            return Collections.max(tournament, Chromosome::compareTo);
+        @Override
+        public void run() {
+            initialize();
+
+            for (int iteration = 0; iteration < maxIterations && !isSolved(); iteration++) {
+                if (islandCount > 1 && iteration > 0 && iteration % migrationInterval == 0) {
+                    migrate();
+                }
+
+                Chromosome firstParent = population[selectFrom(selectionTournamentSize, true)];
+                Chromosome secondParent = population[selectFrom(selectionTournamentSize, true)];
+
+                crossoverOf(firstParent, secondParent, child);
+                mutate(child);
+                evaluate(child);
+
+                int worstIndex = selectFrom(replacementTournamentSize, false);
+                if (!conditionalReplace || child.fitness <= population[worstIndex].fitness) {
+                    replace(worstIndex);
+                }
+            }
         }
-    }
 
-    /**
-     * Performs a crossover of the given parent chromosomes.
-     *
-     * @param firstParent the first parent to cross
-     * @param secondParent the second parent to cross
-     * @return the child chromosome
-     */
-    private Chromosome crossoverOf(Chromosome firstParent, Chromosome secondParent) {
-        int maxCrossoverPoint = Math.min(firstParent.columns.size(), secondParent.columns.size());
-        int crossoverPoint = ThreadLocalRandom.current().nextInt(0, maxCrossoverPoint);
-        int childSize = secondParent.columns.size();
-
-        List<BoxColumn> childColumns = new ArrayList<>();
-        Set<BoxElement> addedElements = new HashSet<>();
-        for (int i = 0; i < crossoverPoint; i++) {
-            BoxColumn column = firstParent.columns.get(i);
-            childColumns.add(column);
-            addedElements.addAll(column.getElements());
+        /**
+         * Initializes and evaluates the population with random chromosomes.
+         */
+        private void initialize() {
+            bestIndex = 0;
+
+            for (int i = 0; i < populationSize; i++) {
+                population[i] = new Chromosome(heights);
+                population[i].randomize();
+                evaluate(population[i]);
+
+                if (population[i].fitness < population[bestIndex].fitness) {
+                    bestIndex = i;
+                }
+            }
+
+            offerBest(population[bestIndex]);
         }
 
-        for (int i = crossoverPoint; i < childSize; i++) {
-            BoxColumn column = secondParent.columns.get(i);
+        /**
+         * Puts the {@link #child} in place of the chromosome on the given index, which becomes the new child buffer.
+         * The best chromosome is only replaced by a chromosome that is at least as good.
+         *
+         * @param index the index of the chromosome to replace
+         */
+        private void replace(int index) {
+            double currentBest = population[bestIndex].fitness;
+            if (index == bestIndex && child.fitness > currentBest) {
+                return;
+            }
 
-            boolean wouldHaveDuplicate = false;
-            for (BoxElement element : elements) {
-                if (addedElements.contains(element)) {
-                    wouldHaveDuplicate = true;
-                    break;
+            Chromosome replaced = population[index];
+            population[index] = child;
+            child = replaced;
+
+            if (population[index].fitness <= currentBest) {
+                bestIndex = index;
+
+                if (population[index].fitness < bestFitness) {
+                    offerBest(population[index]);
                 }
             }
+        }
 
-            if (!wouldHaveDuplicate) {
-                childColumns.add(column);
+        /**
+         * Sends a copy of the best chromosome to the {@link #neighbour} and puts the received migrants
+         * in place of chromosomes chosen by the replacement tournament.
+         */
+        private void migrate() {
+            Chromosome emigrant = new Chromosome(heights);
+            emigrant.copyFrom(population[bestIndex]);
+            neighbour.immigrants.offer(emigrant);
+
+            Chromosome immigrant;
+            while ((immigrant = immigrants.poll()) != null) {
+                child = immigrant;
+                replace(selectFrom(replacementTournamentSize, false));
             }
         }
 
-        List<BoxElement> unassignedElements = new ArrayList<>(elements);
-        unassignedElements.removeAll(addedElements);
+        /**
+         * Selects a chromosome from the population using tournament selection.
+         *
+         * @param tournamentSize the size of the tournament
+         * @param findBest {@code true} if the best chromosome should be selected from the tournament,
+         *                 {@code false} if the worst chromosome should be selected from the tournament
+         * @return the index of the selected chromosome
+         */
+        private int selectFrom(int tournamentSize, boolean findBest) {
+            int selected = ThreadLocalRandom.current().nextInt(populationSize);
+
+            for (int i = 1; i < tournamentSize; i++) {
+                int index = ThreadLocalRandom.current().nextInt(populationSize);
+
+                int comparison = population[index].compareTo(population[selected]);
+                if (findBest ? comparison < 0 : comparison > 0) {
+                    selected = index;
+                }
+            }
 
-        Chromosome child = new Chromosome();
-        child.columns = childColumns;
-        child.insertSorted(unassignedElements);
+            return selected;
+        }
 
-        return child;
-    }
+        /**
+         * Performs a crossover of the given parent chromosomes.
+         *
+         * @param firstParent the first parent to cross
+         * @param secondParent the second parent to cross
+         * @param child the chromosome to store the child in
+         */
+        private void crossoverOf(Chromosome firstParent, Chromosome secondParent, Chromosome child) {
+            int maxCrossoverPoint = Math.min(firstParent.getColumnCount(), secondParent.getColumnCount());
+            int crossoverPoint = ThreadLocalRandom.current().nextInt(0, maxCrossoverPoint);
+            int childSize = secondParent.getColumnCount();
+
+            child.clear();
+            for (int i = 0; i < crossoverPoint; i++) {
+                child.addColumn(firstParent.columns.get(i));
+            }
 
-    /**
-     * Mutates the given chromosome.
-     *
-     * @param chromosome the chromosome to mutate.
-     */
-    private void mutate(Chromosome chromosome) {
-        List<BoxElement> unassignedElements = new ArrayList<>();
+            for (int i = crossoverPoint; i < childSize; i++) {
+                child.addColumn(secondParent.columns.get(i));
+            }
 
-        for (int i = 0; i < MAX_MUTATIONS; i++) {
-            if (ThreadLocalRandom.current().nextDouble() < MUTATION_PROBABILITY) {
-                int randomIndex = ThreadLocalRandom.current().nextInt(chromosome.columns.size());
+            int count = child.getUnassigned(unassigned);
+            repair(child, count);
+        }
 
-                unassignedElements.addAll(chromosome.getElementsOn(randomIndex));
-                chromosome.remove(randomIndex);
+        /**
+         * Mutates the given chromosome.
+         *
+         * @param chromosome the chromosome to mutate.
+         */
+        private void mutate(Chromosome chromosome) {
+            int count = 0;
+
+            for (int i = 0; i < MAX_MUTATIONS; i++) {
+                if (ThreadLocalRandom.current().nextDouble() < MUTATION_PROBABILITY) {
+                    int randomIndex = ThreadLocalRandom.current().nextInt(chromosome.getColumnCount());
+
+                    count = chromosome.remove(randomIndex, unassigned, count);
+                }
+            }
+
+            repair(chromosome, count);
+
+            if (heuristics != null && ThreadLocalRandom.current().nextDouble() < LOCAL_SEARCH_PROBABILITY) {
+                heuristics.emptyLeastFilled(chromosome, unassigned);
             }
         }
 
-        chromosome.insertSorted(unassignedElements);
+        /**
+         * Puts the unassigned elements back into the given chromosome.
+         *
+         * @param chromosome the chromosome to repair
+         * @param count the number of elements in {@link #unassigned}
+         */
+        private void repair(Chromosome chromosome, int count) {
+            if (heuristics != null) {
+                heuristics.repair(chromosome, unassigned, count);
+            } else {
+                chromosome.insertSorted(unassigned, count);
+            }
+        }
     }
 
     /**
      * The main method that runs the {@link BoxFilling} algorithm.
      *
-     * @param args the command-line arguments, 7 expected
+     * @param args the command-line arguments, 7 expected, then an optional number of islands and
+     *             an optional flag for using heuristics
      */
     public static void main(String[] args) {
-        if (args.length != 7)  {
-            System.out.println("Expected 7 arguments, got " + args.length);
+        if (args.length < 7 || args.length > 9)  {
+            System.out.println("Expected 7 to 9 arguments, got " + args.length);
             System.exit(1);
         }
 
@@ -258,8 +488,11 @@ public class BoxFilling {
 
             int maxIterations = Integer.parseInt(args[5]);
             int acceptableSize = Integer.parseInt(args[6]);
+            int islandCount = args.length >= 8 ? Integer.parseInt(args[7]) : 1;
+            boolean useHeuristics = args.length == 9 && Boolean.parseBoolean(args[8]);
 
-            BoxFilling boxFillingGA = new BoxFilling(elements, populationSize, maxIterations, n, m, p, acceptableSize);
+            BoxFilling boxFillingGA = new BoxFilling(elements, populationSize, maxIterations, n, m, p, acceptableSize,
+                    islandCount, DEFAULT_MIGRATION_INTERVAL, useHeuristics);
             boxFillingGA.run();
 
         } catch (IllegalArgumentException | IOException e) {
@@ -290,8 +523,11 @@ public class BoxFilling {
         List<BoxElement> elements = new ArrayList<>();
         for (String part : parts) {
             int height = Integer.parseInt(part);
+            if (height <= 0 || height > Chromosome.MAX_HEIGHT) {
+                throw new IllegalArgumentException("Invalid element height: " + height);
+            }
 
-            elements.add(new BoxElement(height));
+            elements.add(new BoxElement(elements.size(), height));
         }
 
         return elements;
@@ -0,0 +1,102 @@
+package hr.fer.zemris.optjava.dz4.part2;
+
+import java.util.Arrays;
+
+/**
+ * A segment tree over the remaining capacities of {@link BoxColumn} objects, used for first-fit placement.
+ *
+ * Each leaf holds the remaining capacity of one column, and each inner node the maximum of its children,
+ * so both updating a column and finding the first column with enough room take O(log columns) time.
+ * Unused leaves hold 0, so they never fit an element of positive height.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+class CapacityTree {
+
+    /**
+     * The number of leaves, always a power of two.
+     */
+    private int leaves;
+
+    /**
+     * The tree nodes; node 1 is the root, and the leaves start at index {@link #leaves}.
+     */
+    private int[] tree;
+
+    /**
+     * Constructs an empty {@link CapacityTree} with room for the given number of columns.
+     *
+     * @param capacity the initial number of columns
+     */
+    CapacityTree(int capacity) {
+        this.leaves = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.tree = new int[2 * leaves];
+    }
+
+    /**
+     * Sets the remaining capacity of the column on the given index.
+     *
+     * @param index the index of the column
+     * @param remaining the remaining capacity of the column
+     */
+    void set(int index, int remaining) {
+        if (index >= leaves) {
+            grow(index + 1);
+        }
+
+        int node = leaves + index;
+        tree[node] = remaining;
+
+        for (node >>= 1; node > 0; node >>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Returns the index of the first column whose remaining capacity is at least the given height.
+     *
+     * @param height the height of the element to place
+     * @return the index of the first column with enough room, or -1 if there is no such column
+     */
+    int firstFit(int height) {
+        if (tree[1] < height) {
+            return -1;
+        }
+
+        int node = 1;
+        while (node < leaves) {
+            node = tree[2 * node] >= height ? 2 * node : 2 * node + 1;
+        }
+
+        return node - leaves;
+    }
+
+    /**
+     * Sets the remaining capacity of all columns to 0.
+     */
+    void clear() {
+        Arrays.fill(tree, 0);
+    }
+
+    /**
+     * Grows the tree so that it has at least the given number of leaves.
+     *
+     * @param capacity the required number of leaves
+     */
+    private void grow(int capacity) {
+        int newLeaves = leaves;
+        while (newLeaves < capacity) {
+            newLeaves <<= 1;
+        }
+
+        int[] newTree = new int[2 * newLeaves];
+        System.arraycopy(tree, leaves, newTree, newLeaves, leaves);
+        for (int node = newLeaves - 1; node > 0; node--) {
+            newTree[node] = Math.max(newTree[2 * node], newTree[2 * node + 1]);
+        }
+
+        leaves = newLeaves;
+        tree = newTree;
+    }
+}
@@ -1,10 +1,15 @@
 package hr.fer.zemris.optjava.dz4.part2;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The chromosome to be used in {@link BoxFilling}.
  *
+ * Elements are referred to by their ids. The chromosome keeps the index of the column holding each element,
+ * so membership checks take O(1) time, and a {@link CapacityTree} over the columns' remaining heights,
+ * so first-fit placement of an element takes O(log columns) time.
+ *
  * @author Bruna Dujmović
  *
  */
@@ -13,127 +18,375 @@ public class Chromosome implements Comparable<Chromosome> {
     /**
      * The maximum allowed height for a {@link BoxElement}.
      */
-    private static final int MAX_HEIGHT = 20;
+    static final int MAX_HEIGHT = 20;
+
+    /**
+     * The heights of all elements, indexed by element id.
+     */
+    private final int[] heights;
 
     /**
      * The columns containing {@link BoxElement} objects.
      */
     List<BoxColumn> columns;
 
+    /**
+     * The index of the column containing each element, or -1 if the element is unassigned.
+     */
+    private final int[] columnOf;
+
+    /**
+     * The remaining heights of the {@link #columns}.
+     */
+    private final CapacityTree capacities;
+
+    /**
+     * Removed columns kept for reuse.
+     */
+    private final List<BoxColumn> spareColumns;
+
+    /**
+     * A helper array used for sorting element ids.
+     */
+    private final int[] sortBuffer;
+
+    /**
+     * A helper array for counting elements of each height.
+     */
+    private final int[] heightCounts;
+
     /**
      * The fitness of this chromosome.
      */
     double fitness;
 
     /**
-     * Constructs an empty {@link Chromosome}.
+     * Constructs an empty {@link Chromosome} for elements of the given heights.
+     *
+     * @param heights the heights of all elements, indexed by element id
      */
-    public Chromosome() {
+    public Chromosome(int[] heights) {
+        this.heights = heights;
         this.columns = new ArrayList<>();
+        this.columnOf = new int[heights.length];
+        this.capacities = new CapacityTree(heights.length);
+        this.spareColumns = new ArrayList<>();
+        this.sortBuffer = new int[heights.length];
+        this.heightCounts = new int[MAX_HEIGHT + 1];
+
+        Arrays.fill(columnOf, -1);
     }
 
     /**
-     * Constructs a {@link Chromosome} containing the given elements.
-     *
-     * @param elements the elements to add to this chromosome's {@link #columns}
+     * Removes all elements from this chromosome and inserts them again in random order using first fit.
      */
-    public Chromosome(List<BoxElement> elements) {
-        this.columns = new ArrayList<>();
+    public void randomize() {
+        clear();
 
-        Collections.shuffle(elements);
-        insert(elements);
+        for (int i = 0; i < sortBuffer.length; i++) {
+            sortBuffer[i] = i;
+        }
+        for (int i = sortBuffer.length - 1; i > 0; i--) {
+            int j = ThreadLocalRandom.current().nextInt(i + 1);
+
+            int temp = sortBuffer[i];
+            sortBuffer[i] = sortBuffer[j];
+            sortBuffer[j] = temp;
+        }
+
+        for (int id : sortBuffer) {
+            insert(id);
+        }
     }
 
     /**
-     * Inserts the given elements to this chromosome's {@link #columns}.
+     * Makes this chromosome a copy of the given chromosome.
      *
-     * @param elements the elements to add
+     * @param other the chromosome to copy
      */
-    public void insert(List<BoxElement> elements) {
-        for (BoxElement element : elements) {
-            boolean added = false;
+    public void copyFrom(Chromosome other) {
+        if (other.heights.length != heights.length) {
+            throw new IllegalArgumentException();
+        }
 
-            for (BoxColumn column : columns) {
-                if (column.add(element)) {
-                    added = true;
-                    break;
-                }
-            }
+        clear();
+        for (BoxColumn column : other.columns) {
+            addColumn(column);
+        }
+
+        fitness = other.fitness;
+    }
 
-            if (!added) {
-                BoxColumn newColumn = new BoxColumn(MAX_HEIGHT);
-                newColumn.add(element);
-                columns.add(newColumn);
+    /**
+     * Removes all columns from this chromosome.
+     */
+    public void clear() {
+        for (int i = columns.size() - 1; i >= 0; i--) {
+            BoxColumn column = columns.remove(i);
+
+            for (int j = 0; j < column.size(); j++) {
+                columnOf[column.idAt(j)] = -1;
             }
+            column.clear();
+            spareColumns.add(column);
+        }
+
+        capacities.clear();
+    }
+
+    /**
+     * Inserts the element with the given id into the first column with enough room,
+     * or into a new column if there is no such column.
+     *
+     * @param id the id of the element to insert
+     */
+    public void insert(int id) {
+        int height = heights[id];
+
+        int index = capacities.firstFit(height);
+        if (index < 0) {
+            index = columns.size();
+            columns.add(newColumn());
+        }
+
+        BoxColumn column = columns.get(index);
+        column.add(id, height);
+        columnOf[id] = index;
+        capacities.set(index, column.getRemainingHeight());
+    }
+
+    /**
+     * Inserts the given elements to this chromosome's {@link #columns}.
+     *
+     * @param ids the ids of the elements to add
+     * @param count the number of ids to use
+     */
+    public void insert(int[] ids, int count) {
+        for (int i = 0; i < count; i++) {
+            insert(ids[i]);
         }
     }
 
     /**
      * Inserts the given elements to this chromosome's {@link #columns} sorted by height from highest to lowest.
+     * Since heights are bounded by {@link #MAX_HEIGHT}, the elements are sorted by counting.
      *
-     * @param elements the elements to add
+     * @param ids the ids of the elements to add
+     * @param count the number of ids to use
      */
-    public void insertSorted(List<BoxElement> elements) {
-        elements.sort(Comparator.comparingInt(BoxElement::getHeight).reversed());
-        insert(elements);
+    public void insertSorted(int[] ids, int count) {
+        Arrays.fill(heightCounts, 0);
+        for (int i = 0; i < count; i++) {
+            heightCounts[heights[ids[i]]]++;
+        }
+
+        int position = 0;
+        for (int height = MAX_HEIGHT; height >= 0; height--) {
+            int heightCount = heightCounts[height];
+            heightCounts[height] = position;
+            position += heightCount;
+        }
+
+        for (int i = 0; i < count; i++) {
+            sortBuffer[heightCounts[heights[ids[i]]]++] = ids[i];
+        }
+
+        insert(sortBuffer, count);
     }
 
     /**
-     * Adds the given {@link BoxElement} to the {@link BoxColumn} on the specified index.
+     * Adds the element with the given id to the {@link BoxColumn} on the specified index.
      *
-     * @param element the element to add
+     * @param id the id of the element to add
      * @param index the index of the column
-     * @return {@code true} if the element was successfully added
+     * @throws IllegalArgumentException if the index is invalid or the element does not fit in the column
      */
-    public boolean add(BoxElement element, int index) {
+    public void add(int id, int index) {
         if (index < 0 || index >= columns.size()) {
             throw new IllegalArgumentException();
         }
 
-        return columns.get(index).add(element);
+        BoxColumn column = columns.get(index);
+        if (!column.add(id, heights[id])) {
+            throw new IllegalArgumentException("Element " + id + " does not fit in column " + index);
+        }
+
+        columnOf[id] = index;
+        capacities.set(index, column.getRemainingHeight());
     }
 
     /**
-     * Removes the {@link BoxColumn} on the specified index.
+     * Adds the element with the given id to a new column appended to this chromosome.
      *
-     * @param index the index of the column to remove
+     * @param id the id of the element to add
+     * @return the index of the new column
+     */
+    public int addToNewColumn(int id) {
+        int index = columns.size();
+        columns.add(newColumn());
+
+        add(id, index);
+
+        return index;
+    }
+
+    /**
+     * Removes the element on the given position of the {@link BoxColumn} on the specified index.
+     * The column keeps its index even if it becomes empty.
+     *
+     * @param index the index of the column
+     * @param position the position of the element in the column
+     * @return the id of the removed element
      */
-    public void remove(int index) {
+    public int removeElement(int index, int position) {
         if (index < 0 || index >= columns.size()) {
             throw new IllegalArgumentException();
         }
 
-        columns.remove(index);
+        BoxColumn column = columns.get(index);
+        int id = column.idAt(position);
+
+        column.remove(position);
+        columnOf[id] = -1;
+        capacities.set(index, column.getRemainingHeight());
+
+        return id;
     }
 
     /**
-     * Returns a list of {@link BoxElement} objects contained in the {@link BoxColumn} that is on the specified index.
+     * Appends a copy of the given column to this chromosome, unless it contains an element
+     * that is already assigned.
      *
-     * @param index the index of the {@link BoxElement} objects
-     * @return a list of {@link BoxElement} objects contained in the {@link BoxColumn} that is on the specified index
+     * @param column the column to copy
+     * @return {@code true} if the column was added
      */
-    public List<BoxElement> getElementsOn(int index) {
+    public boolean addColumn(BoxColumn column) {
+        for (int i = 0; i < column.size(); i++) {
+            if (columnOf[column.idAt(i)] >= 0) {
+                return false;
+            }
+        }
+
+        int index = columns.size();
+        BoxColumn copy = newColumn();
+        copy.copyFrom(column);
+        columns.add(copy);
+
+        for (int i = 0; i < copy.size(); i++) {
+            columnOf[copy.idAt(i)] = index;
+        }
+        capacities.set(index, copy.getRemainingHeight());
+
+        return true;
+    }
+
+    /**
+     * Removes the {@link BoxColumn} on the specified index and stores the ids of its elements.
+     * The last column is moved to its place.
+     *
+     * @param index the index of the column to remove
+     * @param removed the array to store the ids of the removed elements in
+     * @param count the number of ids already stored in {@code removed}
+     * @return the number of ids stored in {@code removed} after the removal
+     */
+    public int remove(int index, int[] removed, int count) {
         if (index < 0 || index >= columns.size()) {
             throw new IllegalArgumentException();
         }
 
-        return columns.get(index).getElements();
+        BoxColumn column = columns.get(index);
+        for (int i = 0; i < column.size(); i++) {
+            int id = column.idAt(i);
+
+            columnOf[id] = -1;
+            removed[count++] = id;
+        }
+
+        int last = columns.size() - 1;
+        BoxColumn moved = columns.remove(last);
+        if (index != last) {
+            columns.set(index, moved);
+
+            for (int i = 0; i < moved.size(); i++) {
+                columnOf[moved.idAt(i)] = index;
+            }
+            capacities.set(index, moved.getRemainingHeight());
+        }
+        capacities.set(last, 0);
+
+        column.clear();
+        spareColumns.add(column);
+
+        return count;
     }
 
     /**
-     * Returns {@code true} if this chromosome contains the given {@link BoxElement}.
+     * Stores the ids of all elements that are not in any column.
      *
-     * @param element the element to check
-     * @return {@code true} if this chromosome contains the given {@link BoxElement}
+     * @param unassigned the array to store the ids in
+     * @return the number of stored ids
      */
-    public boolean contains(BoxElement element) {
-        for (BoxColumn column : columns) {
-            if (column.contains(element)) {
-                return true;
+    public int getUnassigned(int[] unassigned) {
+        int count = 0;
+
+        for (int id = 0; id < columnOf.length; id++) {
+            if (columnOf[id] < 0) {
+                unassigned[count++] = id;
             }
         }
 
-        return false;
+        return count;
+    }
+
+    /**
+     * Returns the number of columns in this chromosome.
+     *
+     * @return the number of columns in this chromosome
+     */
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    /**
+     * Returns the height of the element with the given id.
+     *
+     * @param id the id of the element
+     * @return the height of the element with the given id
+     */
+    public int getHeight(int id) {
+        return heights[id];
+    }
+
+    /**
+     * Returns the number of elements this chromosome is defined for.
+     *
+     * @return the number of elements this chromosome is defined for
+     */
+    public int getElementCount() {
+        return heights.length;
+    }
+
+    /**
+     * Returns {@code true} if this chromosome contains the element with the given id.
+     *
+     * @param id the id of the element to check
+     * @return {@code true} if this chromosome contains the element with the given id
+     */
+    public boolean contains(int id) {
+        return columnOf[id] >= 0;
+    }
+
+    /**
+     * Returns an empty column, reusing a removed one if possible.
+     *
+     * @return an empty column
+     */
+    private BoxColumn newColumn() {
+        if (spareColumns.isEmpty()) {
+            return new BoxColumn(MAX_HEIGHT);
+        }
+
+        return spareColumns.remove(spareColumns.size() - 1);
     }
 
     @Override
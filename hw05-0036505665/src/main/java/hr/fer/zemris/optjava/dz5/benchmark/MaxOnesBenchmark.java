@@ -0,0 +1,125 @@
+package hr.fer.zemris.optjava.dz5.benchmark;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.BitChromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.MaxOnesChromsome;
+import hr.fer.zemris.optjava.dz5.ga.crossover.OnePointCrossover;
+import hr.fer.zemris.optjava.dz5.ga.mutation.BitFlipMutation;
+
+/**
+ * A simple benchmark of the Max-Ones operators on large chromosomes: fitness calculation, bit flip mutation
+ * and one-point crossover.
+ *
+ * Random chromosomes of the given size are used. Each case is warmed up before it is measured,
+ * and the average time per operation is printed.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class MaxOnesBenchmark {
+
+    /**
+     * The default size of the chromosomes.
+     */
+    private static final int DEFAULT_SIZE = 1_000_000;
+
+    /**
+     * The number of operations executed while warming up.
+     */
+    private static final int WARMUP_OPERATIONS = 2_000;
+
+    /**
+     * The number of measured operations.
+     */
+    private static final int OPERATIONS = 10_000;
+
+    /**
+     * Prevents the JIT compiler from eliminating benchmarked code.
+     */
+    private static double sink;
+
+    /**
+     * The main method. Runs the benchmark.
+     *
+     * @param args the command-line arguments, an optional chromosome size
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+
+        BitChromosome first = new MaxOnesChromsome(size, true);
+        BitChromosome second = new MaxOnesChromsome(size, true);
+
+        fitness(first, WARMUP_OPERATIONS);
+        long start = System.nanoTime();
+        fitness(first, OPERATIONS);
+        report("calculateFitness", System.nanoTime() - start);
+
+        BitFlipMutation mutation = new BitFlipMutation(1.0 / size);
+        mutation(mutation, first, WARMUP_OPERATIONS);
+        start = System.nanoTime();
+        mutation(mutation, first, OPERATIONS);
+        report("mutate, 1 expected flip", System.nanoTime() - start);
+
+        OnePointCrossover<Boolean> crossover = new OnePointCrossover<>(1);
+        crossover(crossover, first, second, WARMUP_OPERATIONS);
+        start = System.nanoTime();
+        crossover(crossover, first, second, OPERATIONS);
+        report("one-point crossover", System.nanoTime() - start);
+
+        System.out.println("(sink: " + sink + ")");
+    }
+
+    /**
+     * Repeatedly calculates the fitness of the given chromosome.
+     *
+     * @param chromosome the chromosome to evaluate
+     * @param operations the number of evaluations
+     */
+    private static void fitness(BitChromosome chromosome, int operations) {
+        for (int i = 0; i < operations; i++) {
+            chromosome.calculateFitness();
+            sink += chromosome.fitness;
+        }
+    }
+
+    /**
+     * Repeatedly mutates the given chromosome in place.
+     *
+     * @param mutation the mutation to use
+     * @param chromosome the chromosome to mutate
+     * @param operations the number of mutations
+     */
+    private static void mutation(BitFlipMutation mutation, BitChromosome chromosome, int operations) {
+        for (int i = 0; i < operations; i++) {
+            mutation.mutate(chromosome);
+        }
+
+        sink += chromosome.words[0];
+    }
+
+    /**
+     * Repeatedly crosses the given parents.
+     *
+     * @param crossover the crossover to use
+     * @param first the first parent
+     * @param second the second parent
+     * @param operations the number of crossovers
+     */
+    private static void crossover(OnePointCrossover<Boolean> crossover, BitChromosome first,
+                                  BitChromosome second, int operations) {
+        for (int i = 0; i < operations; i++) {
+            for (BitChromosome child : crossover.of(first, second)) {
+                sink += child.words[0];
+            }
+        }
+    }
+
+    /**
+     * Prints the average time per operation.
+     *
+     * @param name the name of the benchmark case
+     * @param elapsed the total measured time in nanoseconds
+     */
+    private static void report(String name, long elapsed) {
+        System.out.printf("%-40s %10.2f us/op%n", name, (double) elapsed / OPERATIONS / 1000);
+    }
+}
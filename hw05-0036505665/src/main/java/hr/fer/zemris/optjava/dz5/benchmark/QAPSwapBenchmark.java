@@ -0,0 +1,170 @@
+package hr.fer.zemris.optjava.dz5.benchmark;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.PermutationChromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.QAPProblem;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.SwapDeltaMatrix;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A simple benchmark comparing ways of evaluating swap moves of a {@link PermutationChromosome}:
+ * recalculating the whole cost after each swap, updating the cost with the O(n) swap delta, and reading
+ * deltas from a {@link SwapDeltaMatrix} while scanning the whole swap neighbourhood.
+ *
+ * Random instances of the given size are used. Each case is warmed up before it is measured,
+ * and the average time per evaluated swap is printed.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class QAPSwapBenchmark {
+
+    /**
+     * The default size of the instance, the size of nug25.
+     */
+    private static final int DEFAULT_SIZE = 25;
+
+    /**
+     * The number of swaps evaluated while warming up.
+     */
+    private static final int WARMUP_OPERATIONS = 200_000;
+
+    /**
+     * The number of measured swaps.
+     */
+    private static final int OPERATIONS = 1_000_000;
+
+    /**
+     * The maximum value of a random distance or flow.
+     */
+    private static final int MAX_VALUE = 10;
+
+    /**
+     * Prevents the JIT compiler from eliminating benchmarked code.
+     */
+    private static long sink;
+
+    /**
+     * The main method. Runs the benchmark.
+     *
+     * @param args the command-line arguments, an optional instance size
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+
+        QAPProblem problem = new QAPProblem(randomMatrix(size), randomMatrix(size));
+        PermutationChromosome chromosome = new PermutationChromosome(problem);
+
+        fullEvaluation(chromosome, WARMUP_OPERATIONS);
+        long start = System.nanoTime();
+        fullEvaluation(chromosome, OPERATIONS);
+        report("swap + calculateFitness", System.nanoTime() - start);
+
+        deltaEvaluation(chromosome, WARMUP_OPERATIONS);
+        start = System.nanoTime();
+        deltaEvaluation(chromosome, OPERATIONS);
+        report("swap with O(n) delta", System.nanoTime() - start);
+
+        SwapDeltaMatrix deltas = new SwapDeltaMatrix(size);
+        deltas.initialize(chromosome);
+        matrixScan(deltas, size, WARMUP_OPERATIONS);
+        start = System.nanoTime();
+        matrixScan(deltas, size, OPERATIONS);
+        report("neighbourhood scan with delta matrix", System.nanoTime() - start);
+
+        System.out.println("(sink: " + sink + ")");
+    }
+
+    /**
+     * Applies random swaps and recalculates the whole cost after each one.
+     *
+     * @param chromosome the chromosome to swap values of
+     * @param operations the number of swaps
+     */
+    private static void fullEvaluation(PermutationChromosome chromosome, int operations) {
+        int size = chromosome.values.length;
+
+        for (int i = 0; i < operations; i++) {
+            chromosome.invalidateCost();
+            chromosome.swap(ThreadLocalRandom.current().nextInt(size), ThreadLocalRandom.current().nextInt(size));
+            sink += chromosome.getCost();
+        }
+    }
+
+    /**
+     * Applies random swaps, updating the cost with the swap delta.
+     *
+     * @param chromosome the chromosome to swap values of
+     * @param operations the number of swaps
+     */
+    private static void deltaEvaluation(PermutationChromosome chromosome, int operations) {
+        int size = chromosome.values.length;
+        chromosome.calculateFitness();
+
+        for (int i = 0; i < operations; i++) {
+            chromosome.swap(ThreadLocalRandom.current().nextInt(size), ThreadLocalRandom.current().nextInt(size));
+            sink += chromosome.getCost();
+        }
+    }
+
+    /**
+     * Repeatedly scans all swaps for the best one and applies it, counting each scanned swap as one operation.
+     *
+     * @param deltas the delta matrix of the chromosome
+     * @param size the size of the chromosome
+     * @param operations the number of scanned swaps
+     */
+    private static void matrixScan(SwapDeltaMatrix deltas, int size, int operations) {
+        int scanned = 0;
+
+        while (scanned < operations) {
+            long bestDelta = Long.MAX_VALUE;
+            int bestR = 0;
+            int bestS = 1;
+
+            for (int r = 0; r < size; r++) {
+                for (int s = r + 1; s < size; s++) {
+                    long delta = deltas.get(r, s);
+
+                    if (delta < bestDelta) {
+                        bestDelta = delta;
+                        bestR = r;
+                        bestS = s;
+                    }
+                    scanned++;
+                }
+            }
+
+            deltas.swap(bestR, bestS);
+            sink += bestDelta;
+        }
+    }
+
+    /**
+     * Returns a random square matrix of the given size.
+     *
+     * @param size the size of the matrix
+     * @return a random matrix
+     */
+    private static int[][] randomMatrix(int size) {
+        int[][] matrix = new int[size][size];
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = i == j ? 0 : ThreadLocalRandom.current().nextInt(MAX_VALUE);
+            }
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Prints the average time per evaluated swap.
+     *
+     * @param name the name of the benchmark case
+     * @param elapsed the total measured time in nanoseconds
+     */
+    private static void report(String name, long elapsed) {
+        System.out.printf("%-40s %8.2f ns/op%n", name, (double) elapsed / OPERATIONS);
+    }
+}
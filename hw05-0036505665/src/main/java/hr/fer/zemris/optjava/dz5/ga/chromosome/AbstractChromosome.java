@@ -0,0 +1,63 @@
+package hr.fer.zemris.optjava.dz5.ga.chromosome;
+
+/**
+ * The base class of all chromosomes, regardless of how their values are stored.
+ *
+ * Selections and other parts of the genetic algorithms that only need the fitness work with this class,
+ * so the same implementation can be used for generic chromosomes and for chromosomes storing their values
+ * in primitive arrays.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public abstract class AbstractChromosome implements Comparable<AbstractChromosome> {
+
+    /**
+     * The fitness of the chromosome.
+     */
+    public double fitness;
+
+    /**
+     * Randomizes the values of this chromosome.
+     */
+    public abstract void randomize();
+
+    /**
+     * Returns a copy of this chromosome.
+     *
+     * @return a copy of this chromosome
+     */
+    public abstract AbstractChromosome copy();
+
+    /**
+     * Calculates the fitness of this chromosome.
+     */
+    public abstract void calculateFitness();
+
+    /**
+     * Returns a 64-bit hash of the values of this chromosome, used for detecting duplicates in a population.
+     * Chromosomes that are equal must have the same hash. By default the hash is derived from {@link #hashCode()}.
+     *
+     * @return a 64-bit hash of the values of this chromosome
+     */
+    public long longHash() {
+        return mix(hashCode());
+    }
+
+    /**
+     * Scrambles the bits of the given value using the SplitMix64 finalizer.
+     *
+     * @param value the value to scramble
+     * @return the scrambled value
+     */
+    protected static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    @Override
+    public int compareTo(AbstractChromosome o) {
+        return Double.compare(this.fitness, o.fitness);
+    }
+}
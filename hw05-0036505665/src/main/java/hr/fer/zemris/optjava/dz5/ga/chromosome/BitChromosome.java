@@ -0,0 +1,147 @@
+package hr.fer.zemris.optjava.dz5.ga.chromosome;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A chromosome whose values are bits packed into an array of longs.
+ *
+ * Bit {@code i} is stored in word {@code i / 64}, at position {@code i % 64} counting from the least
+ * significant bit. The unused bits of the last word are always 0.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public abstract class BitChromosome extends AbstractChromosome {
+
+    /**
+     * The number of bits in a word.
+     */
+    public static final int WORD_SIZE = Long.SIZE;
+
+    /**
+     * The number of bits of the chromosome.
+     */
+    public final int size;
+
+    /**
+     * The words containing the bits of the chromosome.
+     */
+    public long[] words;
+
+    /**
+     * Constructs a {@link BitChromosome} of the specified size with all bits set to 0.
+     *
+     * @param size the number of bits
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    protected BitChromosome(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive, got " + size);
+        }
+
+        this.size = size;
+        this.words = new long[(size + WORD_SIZE - 1) / WORD_SIZE];
+    }
+
+    @Override
+    public abstract BitChromosome copy();
+
+    @Override
+    public void randomize() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = ThreadLocalRandom.current().nextLong();
+        }
+
+        words[words.length - 1] &= lastWordMask();
+    }
+
+    /**
+     * Returns the bit on the given index.
+     *
+     * @param index the index of the bit
+     * @return {@code true} if the bit is 1
+     */
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Sets the bit on the given index to the given value.
+     *
+     * @param index the index of the bit
+     * @param value {@code true} for 1, {@code false} for 0
+     */
+    public void set(int index, boolean value) {
+        if (value) {
+            words[index >>> 6] |= 1L << index;
+        } else {
+            words[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    /**
+     * Flips the bit on the given index.
+     *
+     * @param index the index of the bit
+     */
+    public void flip(int index) {
+        words[index >>> 6] ^= 1L << index;
+    }
+
+    /**
+     * Flips all bits of the chromosome.
+     */
+    public void flipAll() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = ~words[i];
+        }
+
+        words[words.length - 1] &= lastWordMask();
+    }
+
+    /**
+     * Returns a mask of the bits of the last word that belong to the chromosome.
+     *
+     * @return a mask of the used bits of the last word
+     */
+    protected long lastWordMask() {
+        int used = size % WORD_SIZE;
+
+        return used == 0 ? -1L : (1L << used) - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BitChromosome that = (BitChromosome) o;
+        return size == that.size && Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(words);
+    }
+
+    @Override
+    public long longHash() {
+        long hash = size;
+        for (long word : words) {
+            hash = mix(hash ^ word);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(size);
+
+        for (int i = 0; i < size; i++) {
+            sb.append(get(i) ? "1" : "0");
+        }
+
+        return sb.toString();
+    }
+}
@@ -5,42 +5,34 @@ import java.util.Arrays;
 /**
  * This class represents a chromosome to be used in various genetic algorithm implementations.
  *
+ * The values are stored in an array of objects. Chromosomes of primitive values should extend
+ * {@link IntChromosome}, {@link BitChromosome} or {@link DoubleChromosome} instead, to avoid boxing.
+ *
  * @param <T> the type of the chromosome's values
  * @author Bruna Dujmović
  *
  */
-public abstract class Chromosome<T> implements Comparable<Chromosome<T>> {
+public abstract class Chromosome<T> extends AbstractChromosome {
 
     /**
      * The values of the chromosome.
      */
     public T[] values;
 
-    /**
-     * The fitness of the chromosome.
-     */
-    public double fitness;
-
-    /**
-     * Randomizes the values of this chromosome.
-     */
-    public abstract void randomize();
-
-    /**
-     * Returns a copy of this chromosome.
-     *
-     * @return a copy of this chromosome
-     */
+    @Override
     public abstract Chromosome<T> copy();
 
     /**
-     * Calculates the fitness of this chromosome.
+     * Swaps the values on the given indexes. Implementations may override this method
+     * to update the fitness without recalculating it.
+     *
+     * @param first the index of the first value
+     * @param second the index of the second value
      */
-    public abstract void calculateFitness();
-
-    @Override
-    public int compareTo(Chromosome<T> o) {
-        return Double.compare(this.fitness, o.fitness);
+    public void swap(int first, int second) {
+        T value = values[first];
+        values[first] = values[second];
+        values[second] = value;
     }
 
     @Override
@@ -0,0 +1,38 @@
+package hr.fer.zemris.optjava.dz5.ga.chromosome;
+
+import java.util.Arrays;
+
+/**
+ * A chromosome whose values are stored in an array of primitive doubles.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public abstract class DoubleChromosome extends AbstractChromosome {
+
+    /**
+     * The values of the chromosome.
+     */
+    public double[] values;
+
+    @Override
+    public abstract DoubleChromosome copy();
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DoubleChromosome that = (DoubleChromosome) o;
+        return Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
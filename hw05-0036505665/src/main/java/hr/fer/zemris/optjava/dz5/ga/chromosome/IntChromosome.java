@@ -0,0 +1,115 @@
+package hr.fer.zemris.optjava.dz5.ga.chromosome;
+
+import java.util.Arrays;
+
+/**
+ * A chromosome whose values are stored in an array of primitive integers.
+ *
+ * The hash of the chromosome is a Zobrist hash - the XOR of a pseudo-random key for every (index, value) pair.
+ * Once calculated, it is kept up to date by {@link #swap(int, int)} in O(1) time, so {@link #invalidateHash()}
+ * must be called after changing the values in any other way.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public abstract class IntChromosome extends AbstractChromosome {
+
+    /**
+     * The values of the chromosome.
+     */
+    public int[] values;
+
+    /**
+     * The Zobrist hash of the values, valid if {@link #hashKnown} is {@code true}.
+     */
+    private long hash;
+
+    /**
+     * {@code true} if {@link #hash} matches the current values.
+     */
+    private boolean hashKnown;
+
+    @Override
+    public abstract IntChromosome copy();
+
+    /**
+     * Swaps the values on the given indexes. Implementations may override this method
+     * to update the fitness without recalculating it.
+     *
+     * @param first the index of the first value
+     * @param second the index of the second value
+     */
+    public void swap(int first, int second) {
+        if (hashKnown) {
+            hash ^= key(first, values[first]) ^ key(second, values[second])
+                    ^ key(first, values[second]) ^ key(second, values[first]);
+        }
+
+        int value = values[first];
+        values[first] = values[second];
+        values[second] = value;
+    }
+
+    /**
+     * Marks the hash as unknown, so it is recalculated when it is needed next.
+     * Should be called after changing the values without {@link #swap(int, int)}.
+     */
+    public void invalidateHash() {
+        hashKnown = false;
+    }
+
+    /**
+     * Copies the hash of the given chromosome, which must have the same values as this one.
+     *
+     * @param other the chromosome whose hash to copy
+     */
+    protected void copyHash(IntChromosome other) {
+        hash = other.hash;
+        hashKnown = other.hashKnown;
+    }
+
+    @Override
+    public long longHash() {
+        if (!hashKnown) {
+            long total = 0;
+            for (int i = 0; i < values.length; i++) {
+                total ^= key(i, values[i]);
+            }
+
+            hash = total;
+            hashKnown = true;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Returns the Zobrist key of the given value on the given index.
+     *
+     * @param index the index
+     * @param value the value
+     * @return the Zobrist key
+     */
+    private static long key(int index, int value) {
+        return mix(((long) index << 32 | value & 0xffffffffL) + 0x9e3779b97f4a7c15L);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IntChromosome that = (IntChromosome) o;
+        return longHash() == that.longHash() && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = longHash();
+        return (int) (hash ^ hash >>> 32);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -1,15 +1,12 @@
 package hr.fer.zemris.optjava.dz5.ga.chromosome;
 
-import java.util.Arrays;
-import java.util.concurrent.ThreadLocalRandom;
-
 /**
  * This class represents a chromosome based on a bit vector that will be used in solving the Max-Ones problem.
  *
  * @author Bruna Dujmović
  *
  */
-public class MaxOnesChromsome extends Chromosome<Boolean> {
+public class MaxOnesChromsome extends BitChromosome {
 
     /**
      * Constructs a {@link MaxOnesChromsome} of the specified size with all values set to 0 ({@code false}).
@@ -17,7 +14,7 @@ public class MaxOnesChromsome extends Chromosome<Boolean> {
      * @param size the size of the chromosome
      */
     public MaxOnesChromsome(int size) {
-        values = new Boolean[size];
+        super(size);
     }
 
     /**
@@ -25,7 +22,7 @@ public class MaxOnesChromsome extends Chromosome<Boolean> {
      * is set to {@code true}. Otherwise, all chromosome values will be set to 0 ({@code false}).
      *
      * @param size the size of the chromosome
-     * @param randomize {@code true} if {@link #values} should be set to random values
+     * @param randomize {@code true} if the bits should be set to random values
      */
     public MaxOnesChromsome(int size, boolean randomize) {
         this(size);
@@ -35,57 +32,31 @@ public class MaxOnesChromsome extends Chromosome<Boolean> {
         }
     }
 
-    /**
-     * Constructs a {@link MaxOnesChromsome} of the given values.
-     *
-     * @param values the values of the chromosome
-     */
-    public MaxOnesChromsome(Boolean[] values) {
-        this.values = values;
-    }
-
     @Override
-    public void randomize() {
-        for (int i = 0; i < values.length; i++) {
-            values[i] = ThreadLocalRandom.current().nextBoolean();
-        }
-    }
+    public MaxOnesChromsome copy() {
+        MaxOnesChromsome copy = new MaxOnesChromsome(size);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        copy.fitness = fitness;
 
-    @Override
-    public Chromosome<Boolean> copy() {
-        return new MaxOnesChromsome(Arrays.copyOf(values, values.length));
+        return copy;
     }
 
     @Override
     public void calculateFitness() {
         int k = 0;
 
-        for (boolean value : values) {
-            if (value) {
-                k++;
-            }
+        for (long word : words) {
+            k += Long.bitCount(word);
         }
 
-        if (k <= 0.8 * values.length) {
-            fitness = (double) k / values.length;
+        if (k <= 0.8 * size) {
+            fitness = (double) k / size;
 
-        } else if (k <= 0.9 * values.length) {
+        } else if (k <= 0.9 * size) {
             fitness = 0.8;
 
         } else {
-            fitness = 2.0 * k / values.length - 1;
-        }
-    }
-
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-
-        for (boolean value : values) {
-            sb.append(value ? "1" : "0");
+            fitness = 2.0 * k / size - 1;
         }
-
-        return sb.toString();
     }
 }
-
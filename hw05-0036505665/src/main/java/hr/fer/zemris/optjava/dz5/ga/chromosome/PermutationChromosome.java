@@ -1,9 +1,6 @@
 package hr.fer.zemris.optjava.dz5.ga.chromosome;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * This class represents a chromosome based on an array of integers that will be used in solving
@@ -12,33 +9,40 @@ import java.util.List;
  * The allowed integer values are in range [0, {@link #values}.length].
  * A single value can occur only once in the {@link #values} array.
  *
+ * Once the cost is calculated, {@link #swap(int, int)} keeps it up to date in O(n) time using the
+ * standard QAP swap formula, and {@link #calculateFitness()} does not recalculate it. The values should
+ * therefore only be changed by swapping, or {@link #invalidateCost()} should be called after changing them.
+ * The same holds for the hash maintained by {@link IntChromosome}.
+ *
  * @author Bruna Dujmović
  *
  */
-public class PermutationChromosome extends Chromosome<Integer> {
+public class PermutationChromosome extends IntChromosome {
+
+    /**
+     * The QAP instance, shared by all chromosomes solving it.
+     */
+    private QAPProblem problem;
 
     /**
-     * The QAP matrix of distances.
+     * The QAP cost of this chromosome, valid if {@link #costKnown} is {@code true}.
      */
-    private int[][] distanceMatrix;
+    private long cost;
 
     /**
-     * The QAP flow matrix.
+     * {@code true} if {@link #cost} matches the current values.
      */
-    private int[][] flowMatrix;
+    private boolean costKnown;
 
     /**
-     * Constructs a random {@link PermutationChromosome} of the specified size.
+     * Constructs a random {@link PermutationChromosome} for the given QAP instance.
      *
-     * @param size the size of the chromosome
-     * @param distanceMatrix the QAP distance matrix
-     * @param flowMatrix the QAP flow matrix
+     * @param problem the QAP instance
      */
-    public PermutationChromosome(int size, int[][] distanceMatrix, int[][] flowMatrix) {
-        this.distanceMatrix = distanceMatrix;
-        this.flowMatrix = flowMatrix;
+    public PermutationChromosome(QAPProblem problem) {
+        this.problem = problem;
 
-        values = new Integer[size];
+        values = new int[problem.size];
         randomize();
     }
 
@@ -46,46 +50,208 @@ public class PermutationChromosome extends Chromosome<Integer> {
      * Constructs a {@link PermutationChromosome} of the given values.
      *
      * @param values the values of the chromosome
-     * @param distanceMatrix the QAP distance matrix
-     * @param flowMatrix the QAP flow matrix
+     * @param problem the QAP instance
      */
-    private PermutationChromosome(Integer[] values, int[][] distanceMatrix, int[][] flowMatrix) {
-        this.distanceMatrix = distanceMatrix;
-        this.flowMatrix = flowMatrix;
+    private PermutationChromosome(int[] values, QAPProblem problem) {
+        this.problem = problem;
         this.values = values;
     }
 
     @Override
     public void randomize() {
-        List<Integer> valuesList = new ArrayList<>(values.length);
         for (int i = 0; i < values.length; i++) {
-            valuesList.add(i);
+            values[i] = i;
         }
 
-        Collections.shuffle(valuesList);
-        values = valuesList.toArray(values);
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = ThreadLocalRandom.current().nextInt(i + 1);
+
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+
+        costKnown = false;
+        invalidateHash();
     }
 
     @Override
-    public Chromosome<Integer> copy() {
-        return new PermutationChromosome(Arrays.copyOf(values, values.length), distanceMatrix, flowMatrix);
+    public PermutationChromosome copy() {
+        PermutationChromosome copy = new PermutationChromosome(values.clone(), problem);
+        copy.cost = cost;
+        copy.costKnown = costKnown;
+        copy.fitness = fitness;
+        copy.copyHash(this);
+
+        return copy;
+    }
+
+    /**
+     * Makes this chromosome a copy of the given chromosome, including its cost.
+     *
+     * @param other the chromosome to copy
+     * @throws IllegalArgumentException if the chromosomes are not of the same size
+     */
+    public void copyFrom(PermutationChromosome other) {
+        if (other.values.length != values.length) {
+            throw new IllegalArgumentException("Chromosomes are not of the same size!");
+        }
+
+        System.arraycopy(other.values, 0, values, 0, values.length);
+        problem = other.problem;
+        cost = other.cost;
+        costKnown = other.costKnown;
+        fitness = other.fitness;
+        copyHash(other);
     }
 
     @Override
     public void calculateFitness() {
-        double cost = 0;
+        if (!costKnown) {
+            int[] flows = problem.flows;
+            int[] distances = problem.distances;
+            int n = values.length;
+            long total = 0;
 
-        for (int i = 0; i < values.length; i++) {
-            for (int j = 0; j < values.length; j++) {
-                cost += flowMatrix[i][j] * distanceMatrix[values[i]][values[j]];
+            for (int i = 0; i < n; i++) {
+                int flowRow = i * n;
+                int distanceRow = values[i] * n;
+
+                for (int j = 0; j < n; j++) {
+                    total += (long) flows[flowRow + j] * distances[distanceRow + values[j]];
+                }
             }
+
+            cost = total;
+            costKnown = true;
         }
 
         fitness = -cost;
     }
 
     @Override
-    public String toString() {
-        return Arrays.toString(values);
+    public void swap(int first, int second) {
+        if (first == second) {
+            return;
+        }
+
+        swap(first, second, costKnown ? swapDelta(first, second) : 0);
+    }
+
+    /**
+     * Swaps the values on the given indexes and changes the cost by the given, already calculated, delta.
+     *
+     * @param first the index of the first value
+     * @param second the index of the second value
+     * @param delta the change of the cost caused by the swap
+     */
+    void swap(int first, int second, long delta) {
+        super.swap(first, second);
+
+        if (costKnown) {
+            cost += delta;
+            fitness = -cost;
+        }
+    }
+
+    /**
+     * Returns the change of the cost caused by swapping the values on the given indexes. Takes O(n) time.
+     *
+     * @param r the index of the first value
+     * @param s the index of the second value
+     * @return the change of the cost caused by the swap
+     */
+    public long swapDelta(int r, int s) {
+        int[] a = problem.flows;
+        int[] b = problem.distances;
+        int n = values.length;
+        int r0 = r * n;
+        int s0 = s * n;
+        int pr = values[r];
+        int ps = values[s];
+        int pr0 = pr * n;
+        int ps0 = ps * n;
+
+        long delta = (long) (a[r0 + r] - a[s0 + s]) * (b[ps0 + ps] - b[pr0 + pr])
+                + (long) (a[r0 + s] - a[s0 + r]) * (b[ps0 + pr] - b[pr0 + ps]);
+
+        for (int k = 0; k < n; k++) {
+            if (k == r || k == s) {
+                continue;
+            }
+
+            int k0 = k * n;
+            int pk = values[k];
+            int pk0 = pk * n;
+            delta += (long) (a[k0 + r] - a[k0 + s]) * (b[pk0 + ps] - b[pk0 + pr])
+                    + (long) (a[r0 + k] - a[s0 + k]) * (b[ps0 + pk] - b[pr0 + pk]);
+        }
+
+        return delta;
+    }
+
+    /**
+     * Returns the delta of swapping the values on indexes {@code i} and {@code j}, given their delta before
+     * the values on indexes {@code r} and {@code s} were swapped. The indexes {@code i} and {@code j} must differ
+     * from {@code r} and {@code s}, and the swap must already be applied. Takes O(1) time.
+     *
+     * @param delta the delta of swapping {@code i} and {@code j} before the last swap
+     * @param i the index of the first value
+     * @param j the index of the second value
+     * @param r the index of the first value of the last swap
+     * @param s the index of the second value of the last swap
+     * @return the current delta of swapping {@code i} and {@code j}
+     */
+    long updatedSwapDelta(long delta, int i, int j, int r, int s) {
+        int[] a = problem.flows;
+        int[] b = problem.distances;
+        int n = values.length;
+        int i0 = i * n;
+        int j0 = j * n;
+        int r0 = r * n;
+        int s0 = s * n;
+        int pi = values[i];
+        int pj = values[j];
+        int pr = values[r];
+        int ps = values[s];
+        int pi0 = pi * n;
+        int pj0 = pj * n;
+        int pr0 = pr * n;
+        int ps0 = ps * n;
+
+        return delta
+                + (long) (a[r0 + i] - a[r0 + j] + a[s0 + j] - a[s0 + i])
+                        * (b[ps0 + pi] - b[ps0 + pj] + b[pr0 + pj] - b[pr0 + pi])
+                + (long) (a[i0 + r] - a[j0 + r] + a[j0 + s] - a[i0 + s])
+                        * (b[pi0 + ps] - b[pj0 + ps] + b[pj0 + pr] - b[pi0 + pr]);
+    }
+
+    /**
+     * Returns the QAP instance this chromosome is a solution of.
+     *
+     * @return the QAP instance
+     */
+    public QAPProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Returns the QAP cost of this chromosome, calculating it if needed.
+     *
+     * @return the QAP cost of this chromosome
+     */
+    public long getCost() {
+        calculateFitness();
+
+        return cost;
+    }
+
+    /**
+     * Marks the cost and the hash as unknown, so they are recalculated when they are needed next.
+     * Should be called after changing the values without {@link #swap(int, int)}.
+     */
+    public void invalidateCost() {
+        costKnown = false;
+        invalidateHash();
     }
 }
@@ -0,0 +1,226 @@
+package hr.fer.zemris.optjava.dz5.ga.chromosome;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * An immutable instance of the Quadratic Assignment Problem.
+ *
+ * Both matrices are stored as flat row-major arrays, so the element in row {@code i} and column {@code j}
+ * is on index {@code i * size + j}. Instances have no mutable state, so a single instance can be shared
+ * by any number of chromosomes and threads.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public final class QAPProblem {
+
+    /**
+     * The size of the problem.
+     */
+    final int size;
+
+    /**
+     * The flat matrix of distances.
+     */
+    final int[] distances;
+
+    /**
+     * The flat flow matrix.
+     */
+    final int[] flows;
+
+    /**
+     * Constructs a {@link QAPProblem} from the given matrices. The matrices are copied.
+     *
+     * @param distanceMatrix the matrix of distances
+     * @param flowMatrix the flow matrix
+     * @throws IllegalArgumentException if the matrices are not square matrices of the same size
+     */
+    public QAPProblem(int[][] distanceMatrix, int[][] flowMatrix) {
+        this(distanceMatrix.length, flatten(distanceMatrix, distanceMatrix.length),
+                flatten(flowMatrix, distanceMatrix.length));
+    }
+
+    /**
+     * Constructs a {@link QAPProblem} from the given flat matrices. The matrices are not copied.
+     *
+     * @param size the size of the problem
+     * @param distances the flat matrix of distances
+     * @param flows the flat flow matrix
+     */
+    private QAPProblem(int size, int[] distances, int[] flows) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive, got " + size);
+        }
+
+        this.size = size;
+        this.distances = distances;
+        this.flows = flows;
+    }
+
+    /**
+     * Reads a QAP instance in the QAPLIB format - the size followed by the distance matrix and the flow matrix,
+     * all separated by whitespace.
+     *
+     * @param path the path to the file
+     * @return the read instance
+     * @throws IOException if an I/O error occurs or the file is not a valid QAP instance
+     */
+    public static QAPProblem read(Path path) throws IOException {
+        Tokenizer tokenizer = new Tokenizer(Files.readAllBytes(path));
+
+        int size = tokenizer.nextInt();
+        if (size <= 0) {
+            throw new IOException("Invalid QAP instance size: " + size);
+        }
+
+        int[] distances = tokenizer.nextInts(size * size);
+        int[] flows = tokenizer.nextInts(size * size);
+
+        return new QAPProblem(size, distances, flows);
+    }
+
+    /**
+     * Returns the size of the problem.
+     *
+     * @return the size of the problem
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the distance between the given locations.
+     *
+     * @param i the first location
+     * @param j the second location
+     * @return the distance between the locations
+     */
+    public int distance(int i, int j) {
+        return distances[i * size + j];
+    }
+
+    /**
+     * Returns the flow between the given units.
+     *
+     * @param i the first unit
+     * @param j the second unit
+     * @return the flow between the units
+     */
+    public int flow(int i, int j) {
+        return flows[i * size + j];
+    }
+
+    /**
+     * Copies the given square matrix into a flat row-major array.
+     *
+     * @param matrix the matrix to copy
+     * @param size the expected size of the matrix
+     * @return the flat matrix
+     * @throws IllegalArgumentException if the matrix is not a square matrix of the expected size
+     */
+    private static int[] flatten(int[][] matrix, int size) {
+        if (matrix.length != size) {
+            throw new IllegalArgumentException("Expected " + size + " rows, got " + matrix.length);
+        }
+
+        int[] flat = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            if (matrix[i].length != size) {
+                throw new IllegalArgumentException("Expected " + size + " columns in row " + i
+                        + ", got " + matrix[i].length);
+            }
+
+            System.arraycopy(matrix[i], 0, flat, i * size, size);
+        }
+
+        return flat;
+    }
+
+    /**
+     * A tokenizer that parses whitespace separated integers directly from bytes.
+     */
+    private static class Tokenizer {
+
+        /**
+         * The bytes to parse.
+         */
+        private final byte[] data;
+
+        /**
+         * The position of the next byte.
+         */
+        private int position;
+
+        /**
+         * Constructs a {@link Tokenizer} of the given bytes.
+         *
+         * @param data the bytes to parse
+         */
+        Tokenizer(byte[] data) {
+            this.data = data;
+        }
+
+        /**
+         * Parses the given number of integers.
+         *
+         * @param count the number of integers
+         * @return the parsed integers
+         * @throws IOException if there are not enough integers or one is malformed
+         */
+        int[] nextInts(int count) throws IOException {
+            int[] values = new int[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = nextInt();
+            }
+
+            return values;
+        }
+
+        /**
+         * Parses the next integer.
+         *
+         * @return the parsed integer
+         * @throws IOException if there are no more integers or the next one is malformed
+         */
+        int nextInt() throws IOException {
+            while (position < data.length && data[position] <= ' ') {
+                position++;
+            }
+
+            if (position == data.length) {
+                throw new IOException("Unexpected end of QAP instance");
+            }
+
+            boolean negative = data[position] == '-';
+            if (negative) {
+                position++;
+            }
+
+            int start = position;
+            long value = 0;
+            while (position < data.length && data[position] > ' ') {
+                int digit = data[position] - '0';
+                if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                    throw new IOException("Malformed integer at byte " + start);
+                }
+
+                value = value * 10 + digit;
+                position++;
+            }
+
+            if (position == start) {
+                throw new IOException("Malformed integer at byte " + start);
+            }
+
+            value = negative ? -value : value;
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new IOException("Integer out of range at byte " + start);
+            }
+
+            return (int) value;
+        }
+    }
+}
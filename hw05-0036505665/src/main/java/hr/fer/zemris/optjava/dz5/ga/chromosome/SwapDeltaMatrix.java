@@ -0,0 +1,109 @@
+package hr.fer.zemris.optjava.dz5.ga.chromosome;
+
+/**
+ * A cache of the cost changes caused by swapping any two values of a {@link PermutationChromosome}.
+ *
+ * Building the matrix takes O(n<sup>3</sup>) time, after which each delta can be read in O(1) time.
+ * When a swap is applied through {@link #swap(int, int)}, the deltas of pairs that do not contain the swapped
+ * indexes are updated in O(1) time each, and the remaining O(n) pairs are recalculated, which takes
+ * O(n<sup>2</sup>) time in total. This makes scanning the whole swap neighbourhood O(n<sup>2</sup>)
+ * instead of O(n<sup>3</sup>).
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class SwapDeltaMatrix {
+
+    /**
+     * The size of the chromosomes.
+     */
+    private int size;
+
+    /**
+     * The deltas of swapping indexes {@code r < s}, stored on index {@code r * size + s}.
+     */
+    private long[] deltas;
+
+    /**
+     * The chromosome the deltas are calculated for.
+     */
+    private PermutationChromosome chromosome;
+
+    /**
+     * Constructs a {@link SwapDeltaMatrix} for chromosomes of the given size.
+     *
+     * @param size the size of the chromosomes
+     */
+    public SwapDeltaMatrix(int size) {
+        this.size = size;
+        this.deltas = new long[size * size];
+    }
+
+    /**
+     * Calculates the deltas of all swaps for the given chromosome. The chromosome should be changed
+     * only through {@link #swap(int, int)} until the matrix is initialized again.
+     *
+     * @param chromosome the chromosome to calculate the deltas for
+     * @throws IllegalArgumentException if the chromosome is not of the expected size
+     */
+    public void initialize(PermutationChromosome chromosome) {
+        if (chromosome.values.length != size) {
+            throw new IllegalArgumentException("Expected a chromosome of size " + size);
+        }
+
+        this.chromosome = chromosome;
+        chromosome.calculateFitness();
+
+        for (int r = 0; r < size; r++) {
+            for (int s = r + 1; s < size; s++) {
+                deltas[r * size + s] = chromosome.swapDelta(r, s);
+            }
+        }
+    }
+
+    /**
+     * Returns the change of the cost caused by swapping the values on the given indexes.
+     *
+     * @param r the index of the first value
+     * @param s the index of the second value
+     * @return the change of the cost caused by the swap
+     */
+    public long get(int r, int s) {
+        return r < s ? deltas[r * size + s] : deltas[s * size + r];
+    }
+
+    /**
+     * Swaps the values on the given indexes of the chromosome and updates the deltas.
+     *
+     * @param r the index of the first value
+     * @param s the index of the second value
+     */
+    public void swap(int r, int s) {
+        if (r == s) {
+            return;
+        }
+
+        chromosome.swap(r, s, get(r, s));
+
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                int index = i * size + j;
+
+                if (i == r || i == s || j == r || j == s) {
+                    deltas[index] = chromosome.swapDelta(i, j);
+                } else {
+                    deltas[index] = chromosome.updatedSwapDelta(deltas[index], i, j, r, s);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the chromosome the deltas are calculated for.
+     *
+     * @return the chromosome the deltas are calculated for
+     */
+    public PermutationChromosome getChromosome() {
+        return chromosome;
+    }
+}
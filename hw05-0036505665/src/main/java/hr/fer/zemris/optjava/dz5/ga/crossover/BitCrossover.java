@@ -0,0 +1,24 @@
+package hr.fer.zemris.optjava.dz5.ga.crossover;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.BitChromosome;
+
+import java.util.Collection;
+
+/**
+ * A version of {@link ICrossover} for chromosomes storing their values as bits packed into longs.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public interface BitCrossover {
+
+    /**
+     * Performs the crossover on two given parent chromosomes.
+     *
+     * @param firstParent the first parent
+     * @param secondParent the second parent
+     * @return a collection of child chromosomes obtained by crossing the given parents
+     * @throws IllegalArgumentException if the parent chromosomes are not the same size
+     */
+    Collection<BitChromosome> of(BitChromosome firstParent, BitChromosome secondParent);
+}
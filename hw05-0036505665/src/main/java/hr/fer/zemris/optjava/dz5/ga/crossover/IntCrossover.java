@@ -0,0 +1,25 @@
+package hr.fer.zemris.optjava.dz5.ga.crossover;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.IntChromosome;
+
+import java.util.Collection;
+
+/**
+ * A version of {@link ICrossover} for chromosomes storing their values in an array of primitive integers.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public interface IntCrossover {
+
+    /**
+     * Performs the crossover on two given parent chromosomes. The children are of the same type as the parents.
+     *
+     * @param firstParent the first parent
+     * @param secondParent the second parent
+     * @param <C> the type of the chromosomes
+     * @return a collection of child chromosomes obtained by crossing the given parents
+     * @throws IllegalArgumentException if the parent chromosomes are not the same size
+     */
+    <C extends IntChromosome> Collection<C> of(C firstParent, C secondParent);
+}
@@ -1,5 +1,6 @@
 package hr.fer.zemris.optjava.dz5.ga.crossover;
 
+import hr.fer.zemris.optjava.dz5.ga.chromosome.BitChromosome;
 import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
 
 import java.util.Arrays;
@@ -15,10 +16,13 @@ import java.util.concurrent.ThreadLocalRandom;
  *
  * The crossover is performed with a given probability - if no crossover occurs, the parents will be returned.
  *
+ * The crossover works both on generic chromosomes and on {@link BitChromosome} objects. Bit chromosomes
+ * exchange whole words after the crossover point and only mask the word containing it.
+ *
  * @param <T> the type of the chromosome's values
  * @author Bruna Dujmović
  */
-public class OnePointCrossover<T> implements ICrossover<T> {
+public class OnePointCrossover<T> implements ICrossover<T>, BitCrossover {
 
     /**
      * The default crossover probability.
@@ -52,7 +56,7 @@ public class OnePointCrossover<T> implements ICrossover<T> {
             throw new IllegalArgumentException("Parent chromosomes are not of the same size!");
         }
 
-        if (probability > ThreadLocalRandom.current().nextDouble()) {
+        if (ThreadLocalRandom.current().nextDouble() >= probability) {
             return Arrays.asList(firstParent, secondParent);
         }
 
@@ -67,4 +71,30 @@ public class OnePointCrossover<T> implements ICrossover<T> {
 
         return Arrays.asList(firstChild, secondChild);
     }
+
+    @Override
+    public Collection<BitChromosome> of(BitChromosome firstParent, BitChromosome secondParent) {
+        if (firstParent.size != secondParent.size) {
+            throw new IllegalArgumentException("Parent chromosomes are not of the same size!");
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() >= probability) {
+            return Arrays.asList(firstParent, secondParent);
+        }
+
+        BitChromosome firstChild = firstParent.copy();
+        BitChromosome secondChild = secondParent.copy();
+        int point = ThreadLocalRandom.current().nextInt(firstParent.size);
+
+        int word = point / BitChromosome.WORD_SIZE;
+        long mask = -1L << point;
+        firstChild.words[word] = firstParent.words[word] & ~mask | secondParent.words[word] & mask;
+        secondChild.words[word] = secondParent.words[word] & ~mask | firstParent.words[word] & mask;
+
+        int tail = firstParent.words.length - word - 1;
+        System.arraycopy(secondParent.words, word + 1, firstChild.words, word + 1, tail);
+        System.arraycopy(firstParent.words, word + 1, secondChild.words, word + 1, tail);
+
+        return Arrays.asList(firstChild, secondChild);
+    }
 }
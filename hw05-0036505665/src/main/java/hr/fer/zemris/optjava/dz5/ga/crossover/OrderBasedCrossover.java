@@ -1,6 +1,6 @@
 package hr.fer.zemris.optjava.dz5.ga.crossover;
 
-import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.IntChromosome;
 
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
@@ -8,10 +8,14 @@ import java.util.concurrent.ThreadLocalRandom;
 /**
  * An implementation of order-based crossover (OX2) that results in two child chromosomes.
  *
+ * Each child is a copy of a parent whose selected values are reordered using at most
+ * {@link #NUM_OF_POSITIONS} - 1 calls to {@link IntChromosome#swap(int, int)}, so chromosomes that can
+ * update their fitness after a swap do not need to recalculate it.
+ *
  * @author Bruna Dujmović
  *
  */
-public class OrderBasedCrossover implements ICrossover<Integer> {
+public class OrderBasedCrossover implements IntCrossover {
 
     /**
      * The number of random positions to select.
@@ -19,22 +23,22 @@ public class OrderBasedCrossover implements ICrossover<Integer> {
     private static final int NUM_OF_POSITIONS = 3;
 
     @Override
-    public Collection<Chromosome<Integer>> of(Chromosome<Integer> firstParent, Chromosome<Integer> secondParent) {
-        Set<Integer> positionsSet = new HashSet<>();
-        while (positionsSet.size() < NUM_OF_POSITIONS) {
-            positionsSet.add(ThreadLocalRandom.current().nextInt(firstParent.values.length));
+    public <C extends IntChromosome> Collection<C> of(C firstParent, C secondParent) {
+        if (firstParent.values.length != secondParent.values.length) {
+            throw new IllegalArgumentException("Parent chromosomes are not of the same size!");
         }
-        Integer[] positions = positionsSet.toArray(new Integer[0]);
 
-        Chromosome<Integer> firstChild = firstParent.copy();
-        Chromosome<Integer> secondChild = secondParent.copy();
+        int[] positions = randomPositions(firstParent.values.length);
+
+        C firstChild = copy(firstParent);
+        C secondChild = copy(secondParent);
 
-        List<Integer> selectedInFirst = new ArrayList<>(NUM_OF_POSITIONS);
-        List<Integer> selectedInSecond = new ArrayList<>(NUM_OF_POSITIONS);
+        int[] selectedInFirst = new int[NUM_OF_POSITIONS];
+        int[] selectedInSecond = new int[NUM_OF_POSITIONS];
 
         for (int i = 0; i < NUM_OF_POSITIONS; i++) {
-            selectedInFirst.add(firstParent.values[positions[i]]);
-            selectedInSecond.add(secondParent.values[positions[i]]);
+            selectedInFirst[i] = firstParent.values[positions[i]];
+            selectedInSecond[i] = secondParent.values[positions[i]];
         }
 
         fillWithSelected(firstChild, selectedInSecond);
@@ -43,20 +47,89 @@ public class OrderBasedCrossover implements ICrossover<Integer> {
         return Arrays.asList(firstChild, secondChild);
     }
 
+    /**
+     * Returns a copy of the given chromosome. Every chromosome's {@link IntChromosome#copy()} returns
+     * an instance of its own class, so the cast is safe.
+     *
+     * @param chromosome the chromosome to copy
+     * @param <C> the type of the chromosome
+     * @return a copy of the chromosome
+     */
+    @SuppressWarnings("unchecked")
+    private static <C extends IntChromosome> C copy(C chromosome) {
+        return (C) chromosome.copy();
+    }
+
+    /**
+     * Returns {@link #NUM_OF_POSITIONS} distinct random positions in ascending order.
+     *
+     * @param length the length of the chromosomes
+     * @return the selected positions
+     */
+    private int[] randomPositions(int length) {
+        int[] positions = new int[NUM_OF_POSITIONS];
+
+        for (int i = 0; i < NUM_OF_POSITIONS; i++) {
+            int position;
+            boolean duplicate;
+
+            do {
+                position = ThreadLocalRandom.current().nextInt(length);
+                duplicate = false;
+
+                for (int j = 0; j < i; j++) {
+                    duplicate |= positions[j] == position;
+                }
+            } while (duplicate);
+
+            positions[i] = position;
+        }
+
+        Arrays.sort(positions);
+        return positions;
+    }
+
     /**
      * Finds the positions in the child that contain elements from {@code selected} and
-     * fills them in the order in which the elements appear in {@code selected}.
+     * fills them in the order in which the elements appear in {@code selected} by swapping.
      *
      * @param child the child to fill
      * @param selected the selected values
      */
-    private void fillWithSelected(Chromosome<Integer> child, List<Integer> selected) {
-        int indexOfSelected = 0;
+    private void fillWithSelected(IntChromosome child, int[] selected) {
+        int[] positions = new int[NUM_OF_POSITIONS];
+        int found = 0;
+
+        for (int i = 0; i < child.values.length && found < NUM_OF_POSITIONS; i++) {
+            if (contains(selected, child.values[i])) {
+                positions[found++] = i;
+            }
+        }
 
-        for (int i = 0; i < child.values.length && indexOfSelected < NUM_OF_POSITIONS; i++) {
-            if (selected.contains(child.values[i])) {
-                child.values[i] = selected.get(indexOfSelected++);
+        for (int i = 0; i < NUM_OF_POSITIONS; i++) {
+            for (int j = i; j < NUM_OF_POSITIONS; j++) {
+                if (child.values[positions[j]] == selected[i]) {
+                    child.swap(positions[i], positions[j]);
+                    break;
+                }
             }
         }
     }
+
+    /**
+     * Returns {@code true} if the given array contains the given value.
+     *
+     * @param array the array to search
+     * @param value the value to find
+     * @return {@code true} if the array contains the value
+     */
+    private static boolean contains(int[] array, int value) {
+        for (int element : array) {
+            if (element == value) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
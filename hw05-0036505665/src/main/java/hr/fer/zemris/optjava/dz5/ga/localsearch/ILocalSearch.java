@@ -0,0 +1,22 @@
+package hr.fer.zemris.optjava.dz5.ga.localsearch;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.AbstractChromosome;
+
+/**
+ * An interface to be implemented by local search algorithms that can be used
+ * to improve single chromosomes, e.g. children in a genetic algorithm.
+ *
+ * @param <C> the type of the chromosomes
+ * @author Bruna Dujmović
+ *
+ */
+public interface ILocalSearch<C extends AbstractChromosome> {
+
+    /**
+     * Improves the given chromosome in place. After the call, the chromosome holds the best solution
+     * found by the search and its fitness is up to date.
+     *
+     * @param chromosome the chromosome to improve
+     */
+    void improve(C chromosome);
+}
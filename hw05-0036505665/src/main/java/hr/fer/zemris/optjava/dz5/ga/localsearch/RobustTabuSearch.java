@@ -0,0 +1,182 @@
+package hr.fer.zemris.optjava.dz5.ga.localsearch;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.PermutationChromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.SwapDeltaMatrix;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An implementation of Taillard's Robust Tabu Search for the Quadratic Assignment Problem.
+ *
+ * Each iteration applies the best allowed swap of two values of a {@link PermutationChromosome}, reading
+ * the deltas from a {@link SwapDeltaMatrix}, so an iteration takes O(n<sup>2</sup>) time. After a swap,
+ * putting either value back on its old position is tabu for a random number of iterations. A tabu move
+ * is allowed if it leads to a new best solution, and a move is forced if it puts a value on a position
+ * where it has not been for a long time.
+ *
+ * An instance keeps helper arrays, so it should be used by one thread only.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class RobustTabuSearch implements ILocalSearch<PermutationChromosome> {
+
+    /**
+     * The maximum tabu tenure, as a multiple of the chromosome size.
+     */
+    private static final int TENURE_FACTOR = 8;
+
+    /**
+     * The number of iterations after which a move is forced, as a multiple of the squared chromosome size.
+     */
+    private static final int ASPIRATION_FACTOR = 5;
+
+    /**
+     * The maximum number of iterations of a single search.
+     */
+    private int maxIterations;
+
+    /**
+     * The cost at which the search stops.
+     */
+    private long targetCost;
+
+    /**
+     * The delta matrix of the current solution.
+     */
+    private SwapDeltaMatrix deltas;
+
+    /**
+     * The iteration until which putting value {@code j} on index {@code i} is tabu, on index {@code i * n + j}.
+     */
+    private int[] tabu;
+
+    /**
+     * The best solution found by the current search.
+     */
+    private PermutationChromosome best;
+
+    /**
+     * Constructs a {@link RobustTabuSearch} that runs for the given number of iterations.
+     *
+     * @param maxIterations the maximum number of iterations of a single search
+     */
+    public RobustTabuSearch(int maxIterations) {
+        this(maxIterations, Long.MIN_VALUE);
+    }
+
+    /**
+     * Constructs a {@link RobustTabuSearch} that runs for the given number of iterations,
+     * or until it finds a solution of the target cost.
+     *
+     * @param maxIterations the maximum number of iterations of a single search
+     * @param targetCost the cost at which the search stops, e.g. the best known cost
+     * @throws IllegalArgumentException if the number of iterations is negative
+     */
+    public RobustTabuSearch(int maxIterations, long targetCost) {
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("The number of iterations must not be negative!");
+        }
+
+        this.maxIterations = maxIterations;
+        this.targetCost = targetCost;
+    }
+
+    @Override
+    public void improve(PermutationChromosome current) {
+        int n = current.values.length;
+        if (n < 2) {
+            current.calculateFitness();
+            return;
+        }
+
+        prepare(current);
+
+        int[] values = current.values;
+        long currentCost = current.getCost();
+        long bestCost = currentCost;
+        int tenure = TENURE_FACTOR * n;
+        int aspiration = ASPIRATION_FACTOR * n * n;
+
+        for (int iteration = 1; iteration <= maxIterations && bestCost > targetCost; iteration++) {
+            int bestFirst = -1;
+            int bestSecond = -1;
+            long minDelta = Long.MAX_VALUE;
+            boolean alreadyAspired = false;
+
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    long delta = deltas.get(i, j);
+                    int firstTabu = tabu[i * n + values[j]];
+                    int secondTabu = tabu[j * n + values[i]];
+
+                    boolean allowed = firstTabu < iteration || secondTabu < iteration;
+                    boolean aspired = firstTabu < iteration - aspiration || secondTabu < iteration - aspiration
+                            || currentCost + delta < bestCost;
+
+                    if ((aspired && (!alreadyAspired || delta < minDelta))
+                            || (!aspired && !alreadyAspired && allowed && delta < minDelta)) {
+                        bestFirst = i;
+                        bestSecond = j;
+                        minDelta = delta;
+                        alreadyAspired = aspired;
+                    }
+                }
+            }
+
+            if (bestFirst < 0) {
+                continue;
+            }
+
+            deltas.swap(bestFirst, bestSecond);
+            currentCost += minDelta;
+
+            tabu[bestFirst * n + values[bestSecond]] = iteration + randomTenure(tenure);
+            tabu[bestSecond * n + values[bestFirst]] = iteration + randomTenure(tenure);
+
+            if (currentCost < bestCost) {
+                bestCost = currentCost;
+                best.copyFrom(current);
+            }
+        }
+
+        current.copyFrom(best);
+    }
+
+    /**
+     * Initializes the delta matrix, the tabu list and the best solution for a search starting from
+     * the given chromosome, reusing the helper arrays if the size has not changed.
+     *
+     * @param current the starting chromosome
+     */
+    private void prepare(PermutationChromosome current) {
+        int n = current.values.length;
+
+        if (best == null || best.values.length != n) {
+            deltas = new SwapDeltaMatrix(n);
+            tabu = new int[n * n];
+            best = current.copy();
+        }
+
+        deltas.initialize(current);
+        best.copyFrom(current);
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                tabu[i * n + j] = -(n * i + j);
+            }
+        }
+    }
+
+    /**
+     * Returns a random tenure, skewed towards short tenures.
+     *
+     * @param maxTenure the maximum tenure
+     * @return a random tenure between 0 and the maximum tenure
+     */
+    private static int randomTenure(int maxTenure) {
+        double random = ThreadLocalRandom.current().nextDouble();
+
+        return (int) (random * random * random * maxTenure);
+    }
+}
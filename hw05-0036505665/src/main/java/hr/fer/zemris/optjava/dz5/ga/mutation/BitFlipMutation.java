@@ -1,17 +1,21 @@
 package hr.fer.zemris.optjava.dz5.ga.mutation;
 
-import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.BitChromosome;
 
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * An {@link IMutation} implementation that flips the bits of a given {@link Chromosome}
+ * A {@link BitMutation} implementation that flips the bits of a given {@link BitChromosome}
  * with the given probability.
  *
+ * Instead of drawing a random number for every bit, the mutation draws the number of bits to skip before the
+ * next flipped bit from the geometric distribution, so it takes time proportional to the expected number of
+ * flipped bits rather than to the size of the chromosome.
+ *
  * @author Bruna Dujmović
  *
  */
-public class BitFlipMutation implements IMutation<Boolean> {
+public class BitFlipMutation implements BitMutation {
 
     /**
      * The default bit flip probability.
@@ -23,36 +27,67 @@ public class BitFlipMutation implements IMutation<Boolean> {
      */
     private double probability;
 
+    /**
+     * The natural logarithm of the probability that a bit is not flipped.
+     */
+    private double logKeepProbability;
+
     /**
      * Constructs a {@link BitFlipMutation} of the default bit flip probability.
      */
     public BitFlipMutation() {
-        this.probability = DEFAULT_PROBABILITY;
+        this(DEFAULT_PROBABILITY);
     }
 
     /**
      * Constructs a {@link BitFlipMutation} of the given bit flip probability.
      *
      * @param probability the bit flip probability
+     * @throws IllegalArgumentException if the probability is not in range [0, 1]
      */
     public BitFlipMutation(double probability) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("Probability must be in range [0, 1], got " + probability);
+        }
+
         this.probability = probability;
+        this.logKeepProbability = Math.log1p(-probability);
     }
 
     @Override
-    public Chromosome<Boolean> of(Chromosome<Boolean> chromosome) {
-        Chromosome<Boolean> copy = chromosome.copy();
+    public BitChromosome of(BitChromosome chromosome) {
+        BitChromosome copy = chromosome.copy();
         mutate(copy);
 
         return copy;
     }
 
     @Override
-    public void mutate(Chromosome<Boolean> chromosome) {
-        for (int i = 0; i < chromosome.values.length; i++) {
-            if (probability <= ThreadLocalRandom.current().nextDouble()) {
-                chromosome.values[i] = !chromosome.values[i];
-            }
+    public void mutate(BitChromosome chromosome) {
+        if (probability == 0) {
+            return;
+        }
+
+        if (probability == 1) {
+            chromosome.flipAll();
+            return;
         }
+
+        long index = nextGap();
+        while (index < chromosome.size) {
+            chromosome.flip((int) index);
+            index += 1 + nextGap();
+        }
+    }
+
+    /**
+     * Returns the number of bits that are not flipped before the next flipped bit.
+     *
+     * @return a random number from the geometric distribution of the number of failures before the first flip
+     */
+    private long nextGap() {
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+
+        return (long) (Math.log(random) / logKeepProbability);
     }
 }
@@ -0,0 +1,27 @@
+package hr.fer.zemris.optjava.dz5.ga.mutation;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.BitChromosome;
+
+/**
+ * A version of {@link IMutation} for chromosomes storing their values as bits packed into longs.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public interface BitMutation {
+
+    /**
+     * Returns a mutated copy of the given chromosome.
+     *
+     * @param chromosome the chromosome to mutate
+     * @return a mutated copy of the given chromosome
+     */
+    BitChromosome of(BitChromosome chromosome);
+
+    /**
+     * Mutates the given chromosome.
+     *
+     * @param chromosome the chromosome to mutate
+     */
+    void mutate(BitChromosome chromosome);
+}
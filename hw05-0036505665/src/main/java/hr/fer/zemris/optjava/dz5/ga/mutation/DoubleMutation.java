@@ -0,0 +1,27 @@
+package hr.fer.zemris.optjava.dz5.ga.mutation;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.DoubleChromosome;
+
+/**
+ * A version of {@link IMutation} for chromosomes storing their values in an array of primitive doubles.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public interface DoubleMutation {
+
+    /**
+     * Returns a mutated copy of the given chromosome.
+     *
+     * @param chromosome the chromosome to mutate
+     * @return a mutated copy of the given chromosome
+     */
+    DoubleChromosome of(DoubleChromosome chromosome);
+
+    /**
+     * Mutates the given chromosome.
+     *
+     * @param chromosome the chromosome to mutate
+     */
+    void mutate(DoubleChromosome chromosome);
+}
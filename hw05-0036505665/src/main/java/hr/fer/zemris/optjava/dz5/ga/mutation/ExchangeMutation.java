@@ -1,16 +1,20 @@
 package hr.fer.zemris.optjava.dz5.ga.mutation;
 
 import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.IntChromosome;
 
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * An {@link IMutation} implementation that swaps two values in a given {@link Chromosome}.
+ * An {@link IMutation} and {@link IntMutation} implementation that swaps two values in a given chromosome.
+ *
+ * The values are swapped using {@link Chromosome#swap(int, int)} or {@link IntChromosome#swap(int, int)}, so chromosomes that can update
+ * their fitness after a swap do not need to recalculate it.
  *
  * @param <T> the type of the chromosome's values
  * @author Bruna Dujmović
  */
-public class ExchangeMutation<T> implements IMutation<T> {
+public class ExchangeMutation<T> implements IMutation<T>, IntMutation {
 
     @Override
     public Chromosome<T> of(Chromosome<T> chromosome) {
@@ -25,8 +29,22 @@ public class ExchangeMutation<T> implements IMutation<T> {
         int firstIndex = ThreadLocalRandom.current().nextInt(chromosome.values.length);
         int secondIndex = ThreadLocalRandom.current().nextInt(chromosome.values.length);
 
-        T firstValue = chromosome.values[firstIndex];
-        chromosome.values[firstIndex] = chromosome.values[secondIndex];
-        chromosome.values[secondIndex] = firstValue;
+        chromosome.swap(firstIndex, secondIndex);
+    }
+
+    @Override
+    public IntChromosome of(IntChromosome chromosome) {
+        IntChromosome copy = chromosome.copy();
+        mutate(copy);
+
+        return copy;
+    }
+
+    @Override
+    public void mutate(IntChromosome chromosome) {
+        int firstIndex = ThreadLocalRandom.current().nextInt(chromosome.values.length);
+        int secondIndex = ThreadLocalRandom.current().nextInt(chromosome.values.length);
+
+        chromosome.swap(firstIndex, secondIndex);
     }
 }
@@ -0,0 +1,27 @@
+package hr.fer.zemris.optjava.dz5.ga.mutation;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.IntChromosome;
+
+/**
+ * A version of {@link IMutation} for chromosomes storing their values in an array of primitive integers.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public interface IntMutation {
+
+    /**
+     * Returns a mutated copy of the given chromosome.
+     *
+     * @param chromosome the chromosome to mutate
+     * @return a mutated copy of the given chromosome
+     */
+    IntChromosome of(IntChromosome chromosome);
+
+    /**
+     * Mutates the given chromosome.
+     *
+     * @param chromosome the chromosome to mutate
+     */
+    void mutate(IntChromosome chromosome);
+}
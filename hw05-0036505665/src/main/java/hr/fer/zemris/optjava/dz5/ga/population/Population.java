@@ -0,0 +1,277 @@
+package hr.fer.zemris.optjava.dz5.ga.population;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.AbstractChromosome;
+
+import java.util.*;
+
+/**
+ * A population of unique chromosomes with O(1) access by index.
+ *
+ * The chromosomes are stored densely in an array, so selections can draw a random chromosome without copying
+ * the population. Duplicates are detected using an open addressing hash table of indexes, keyed by
+ * {@link AbstractChromosome#longHash()}, so a duplicate check compares the values of two chromosomes only when
+ * their 64-bit hashes match. Removal moves the last chromosome into the freed slot, so the order of the
+ * chromosomes is not preserved.
+ *
+ * The chromosomes must not be changed while they are in the population.
+ *
+ * @param <C> the type of the chromosomes
+ * @author Bruna Dujmović
+ *
+ */
+public class Population<C extends AbstractChromosome> extends AbstractCollection<C> {
+
+    /**
+     * The default initial capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The chromosomes of the population.
+     */
+    private Object[] chromosomes;
+
+    /**
+     * The hashes of the chromosomes, on the same indexes as the chromosomes.
+     */
+    private long[] hashes;
+
+    /**
+     * The hash table containing indexes of the chromosomes increased by one, 0 marks an empty slot.
+     * Its length is a power of two and at least twice the capacity.
+     */
+    private int[] table;
+
+    /**
+     * The number of chromosomes in the population.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty {@link Population}.
+     */
+    public Population() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty {@link Population} with the given initial capacity.
+     *
+     * @param capacity the initial capacity
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public Population(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative, got " + capacity);
+        }
+
+        capacity = Math.max(capacity, 1);
+        chromosomes = new Object[capacity];
+        hashes = new long[capacity];
+        table = new int[tableLength(capacity)];
+    }
+
+    /**
+     * Constructs a {@link Population} containing the unique chromosomes of the given collection.
+     *
+     * @param chromosomes the chromosomes to add
+     */
+    public Population(Collection<? extends C> chromosomes) {
+        this(chromosomes.size());
+        addAll(chromosomes);
+    }
+
+    /**
+     * Returns the chromosome on the given index.
+     *
+     * @param index the index of the chromosome
+     * @return the chromosome on the given index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public C get(int index) {
+        Objects.checkIndex(index, size);
+
+        return (C) chromosomes[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the given chromosome if the population does not already contain an equal one.
+     *
+     * @param chromosome the chromosome to add
+     * @return {@code true} if the chromosome was added
+     */
+    @Override
+    public boolean add(C chromosome) {
+        long hash = chromosome.longHash();
+        int slot = find(chromosome, hash);
+        if (table[slot] != 0) {
+            return false;
+        }
+
+        if (size == chromosomes.length) {
+            grow();
+            slot = find(chromosome, hash);
+        }
+
+        chromosomes[size] = chromosome;
+        hashes[size] = hash;
+        table[slot] = ++size;
+
+        return true;
+    }
+
+    /**
+     * Removes the chromosome on the given index and moves the last chromosome to its place.
+     *
+     * @param index the index of the chromosome
+     * @return the removed chromosome
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public C removeAt(int index) {
+        C removed = get(index);
+        int last = size - 1;
+
+        deleteSlot(slotOf(index));
+
+        if (index != last) {
+            table[slotOf(last)] = index + 1;
+            chromosomes[index] = chromosomes[last];
+            hashes[index] = hashes[last];
+        }
+
+        chromosomes[last] = null;
+        size--;
+
+        return removed;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        if (!(o instanceof AbstractChromosome)) {
+            return false;
+        }
+
+        AbstractChromosome chromosome = (AbstractChromosome) o;
+        return table[find((C) chromosome, chromosome.longHash())] != 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(chromosomes, 0, size, null);
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+
+    @Override
+    public Iterator<C> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public C next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+
+                return get(index++);
+            }
+        };
+    }
+
+    /**
+     * Returns the slot containing the chromosome equal to the given one, or the empty slot where it belongs.
+     *
+     * @param chromosome the chromosome to find
+     * @param hash the hash of the chromosome
+     * @return the slot of the chromosome
+     */
+    private int find(C chromosome, long hash) {
+        int mask = table.length - 1;
+
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0 || hashes[entry - 1] == hash && chromosome.equals(chromosomes[entry - 1])) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot containing the given index.
+     *
+     * @param index the index of a chromosome
+     * @return the slot containing the index
+     */
+    private int slotOf(int index) {
+        int mask = table.length - 1;
+
+        int slot = (int) hashes[index] & mask;
+        while (table[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Empties the given slot, shifting back the entries that follow it so no lookup is cut short.
+     *
+     * @param slot the slot to empty
+     */
+    private void deleteSlot(int slot) {
+        int mask = table.length - 1;
+
+        for (int next = (slot + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = (int) hashes[table[next] - 1] & mask;
+
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                table[slot] = table[next];
+                slot = next;
+            }
+        }
+
+        table[slot] = 0;
+    }
+
+    /**
+     * Doubles the capacity of the population and rebuilds the hash table.
+     */
+    private void grow() {
+        int capacity = chromosomes.length * 2;
+        chromosomes = Arrays.copyOf(chromosomes, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        table = new int[tableLength(capacity)];
+
+        int mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = (int) hashes[i] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+
+            table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Returns the length of the hash table for the given capacity.
+     *
+     * @param capacity the capacity of the population
+     * @return the smallest power of two that is at least twice the capacity
+     */
+    private static int tableLength(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+}
@@ -1,26 +1,27 @@
 package hr.fer.zemris.optjava.dz5.ga.selection;
 
-import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
-
-import java.util.Collection;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.AbstractChromosome;
+import hr.fer.zemris.optjava.dz5.ga.population.Population;
 
 /**
  * An interface to be implemented by different types of GA selection.
  * Each implementation should provide a method for selecting a single
  * chromosome from a given population.
  *
- * @param <T> the type of the chromosome's values
+ * Selections only compare fitness, so they work with any type of chromosome.
+ * They draw chromosomes by index, so a selection does not copy the population.
+ *
+ * @param <C> the type of the chromosomes
  * @author Bruna Dujmović
  *
  */
-public interface ISelection<T> {
+public interface ISelection<C extends AbstractChromosome> {
 
     /**
      * Selects a single chromosome from the given population.
      *
-     *
      * @param population the population to select from
      * @return the selected chromosome
      */
-    Chromosome<T> from(Collection<Chromosome<T>> population);
+    C from(Population<C> population);
 }
@@ -1,8 +1,8 @@
 package hr.fer.zemris.optjava.dz5.ga.selection;
 
-import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.AbstractChromosome;
+import hr.fer.zemris.optjava.dz5.ga.population.Population;
 
-import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -10,15 +10,16 @@ import java.util.concurrent.ThreadLocalRandom;
  *
  * The size of the tournament is specified using the {@link #tournamentSize} field.
  * For example, if {@link #tournamentSize} is 4 then 4 chromosomes will be chosen from
- * the population to form a tournament, and the best one among them will be selected.
+ * the population to form a tournament, and the one with the highest fitness among them will be selected.
  *
- * This implementation makes sure that all chromosomes in a tournament are unique.
+ * This implementation makes sure that all chromosomes in a tournament are unique, unless the population
+ * is smaller than the tournament. Instances are not thread-safe.
  *
- * @param <T> the type of the chromosome's values
+ * @param <C> the type of the chromosomes
  * @author Bruna Dujmović
  *
  */
-public class TournamentSelection<T> implements ISelection<T> {
+public class TournamentSelection<C extends AbstractChromosome> implements ISelection<C> {
 
     /**
      * The minimum tournament size.
@@ -30,6 +31,11 @@ public class TournamentSelection<T> implements ISelection<T> {
      */
     private int tournamentSize;
 
+    /**
+     * The indexes drawn for the current tournament.
+     */
+    private int[] drawn;
+
     /**
      * Constructs a {@link TournamentSelection} of a given size.
      *
@@ -42,18 +48,47 @@ public class TournamentSelection<T> implements ISelection<T> {
         }
 
         this.tournamentSize = tournamentSize;
+        this.drawn = new int[tournamentSize];
     }
 
     @Override
-    public Chromosome<T> from(Collection<Chromosome<T>> population) {
-        List<Chromosome<T>> populationList = new ArrayList<>(population);
-        List<Chromosome<T>> tournament = new ArrayList<>();
+    public C from(Population<C> population) {
+        int size = population.size();
+        boolean unique = size >= tournamentSize;
+        C best = null;
+
+        for (int i = 0; i < tournamentSize; i++) {
+            int randomIndex = ThreadLocalRandom.current().nextInt(size);
+
+            if (unique && isDrawn(randomIndex, i)) {
+                i--;
+                continue;
+            }
+
+            drawn[i] = randomIndex;
+            C chromosome = population.get(randomIndex);
+            if (best == null || chromosome.fitness > best.fitness) {
+                best = chromosome;
+            }
+        }
+
+        return best;
+    }
 
-        while (tournament.size() < tournamentSize) {
-            int randomIndex = ThreadLocalRandom.current().nextInt(population.size());
-            tournament.add(populationList.get(randomIndex));
+    /**
+     * Returns {@code true} if the given index is among the first {@code count} indexes drawn for the tournament.
+     *
+     * @param index the index to check
+     * @param count the number of indexes drawn so far
+     * @return {@code true} if the index was already drawn
+     */
+    private boolean isDrawn(int index, int count) {
+        for (int i = 0; i < count; i++) {
+            if (drawn[i] == index) {
+                return true;
+            }
         }
 
-        return Collections.min(tournament);
+        return false;
     }
 }
@@ -1,12 +1,13 @@
 package hr.fer.zemris.optjava.dz5.part1;
 
-import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.BitChromosome;
 import hr.fer.zemris.optjava.dz5.ga.chromosome.MaxOnesChromsome;
-import hr.fer.zemris.optjava.dz5.ga.crossover.ICrossover;
+import hr.fer.zemris.optjava.dz5.ga.crossover.BitCrossover;
 import hr.fer.zemris.optjava.dz5.ga.crossover.OnePointCrossover;
 import hr.fer.zemris.optjava.dz5.ga.factor.LinearCompFactor;
 import hr.fer.zemris.optjava.dz5.ga.mutation.BitFlipMutation;
-import hr.fer.zemris.optjava.dz5.ga.mutation.IMutation;
+import hr.fer.zemris.optjava.dz5.ga.mutation.BitMutation;
+import hr.fer.zemris.optjava.dz5.ga.population.Population;
 import hr.fer.zemris.optjava.dz5.ga.selection.ISelection;
 import hr.fer.zemris.optjava.dz5.ga.selection.RandomSelection;
 import hr.fer.zemris.optjava.dz5.ga.selection.TournamentSelection;
@@ -47,22 +48,22 @@ public class GeneticAlgorithm {
     /**
      * The crossover to use for combining parent chromosomes.
      */
-    private ICrossover<Boolean> crossover;
+    private BitCrossover crossover;
 
     /**
      * The mutation to use for modifying child chromosomes.
      */
-    private IMutation<Boolean> mutation;
+    private BitMutation mutation;
 
     /**
      * The first type of GA selection to use.
      */
-    private ISelection<Boolean> firstSelection;
+    private ISelection<BitChromosome> firstSelection;
 
     /**
      * The second type of GA selection to use.
      */
-    private ISelection<Boolean> secondSelection;
+    private ISelection<BitChromosome> secondSelection;
 
     /**
      * The comparison factor for determining if a child chromosome is successful.
@@ -83,8 +84,8 @@ public class GeneticAlgorithm {
      * @param secondSelection the second type of GA selection to use
      * @param chromosomeSize the size of the chromosomes
      */
-    public GeneticAlgorithm(ICrossover<Boolean> crossover, IMutation<Boolean> mutation,
-                            ISelection<Boolean> firstSelection, ISelection<Boolean> secondSelection,
+    public GeneticAlgorithm(BitCrossover crossover, BitMutation mutation,
+                            ISelection<BitChromosome> firstSelection, ISelection<BitChromosome> secondSelection,
                             ICompFactor compFactor, int chromosomeSize) {
         this.crossover = crossover;
         this.mutation = mutation;
@@ -98,28 +99,35 @@ public class GeneticAlgorithm {
      * Executes the algorithm.
      */
     public void run() {
-        Set<Chromosome<Boolean>> population = new HashSet<>();
+        Population<BitChromosome> population = new Population<>(MIN_POP_SIZE);
 
         initialize(population);
         evaluate(population);
 
         int iteration = 0;
         while (iteration < MAX_ITERATIONS && population.size() >= MIN_POP_SIZE) {
-            Chromosome<Boolean> best = Collections.max(population);
+            BitChromosome best = Collections.max(population);
             System.out.println(best + " - " + best.fitness);
 
-            Set<Chromosome<Boolean>> newPopulation = new HashSet<>();
+            Population<BitChromosome> newPopulation = new Population<>(MAX_POP_SIZE);
             double factor = compFactor.getFactor();
 
             int effort = 0;
             while (effort < MAX_EFFORT) {
-                Chromosome<Boolean> firstParent = firstSelection.from(population);
-                Chromosome<Boolean> secondParent = secondSelection.from(population);
-
-                Collection<Chromosome<Boolean>> children = crossover.of(firstParent, secondParent);
-
-                for (Chromosome<Boolean> child : children) {
-                    mutation.mutate(child);
+                BitChromosome firstParent = firstSelection.from(population);
+                BitChromosome secondParent = secondSelection.from(population);
+
+                Collection<BitChromosome> children = crossover.of(firstParent, secondParent);
+
+                for (BitChromosome crossed : children) {
+                    // the crossover returns the parents themselves when it does not happen
+                    BitChromosome child;
+                    if (crossed == firstParent || crossed == secondParent) {
+                        child = mutation.of(crossed);
+                    } else {
+                        child = crossed;
+                        mutation.mutate(child);
+                    }
                     child.calculateFitness();
 
                     if (newPopulation.size() >= MAX_POP_SIZE) {
@@ -145,7 +153,7 @@ public class GeneticAlgorithm {
      *
      * @param population the population to initialize
      */
-    private void initialize(Collection<Chromosome<Boolean>> population) {
+    private void initialize(Collection<BitChromosome> population) {
         while (population.size() < MIN_POP_SIZE) {
             population.add(new MaxOnesChromsome(chromosomeSize, true));
         }
@@ -156,8 +164,8 @@ public class GeneticAlgorithm {
      *
      * @param population the population to evaluate
      */
-    private void evaluate(Collection<Chromosome<Boolean>> population) {
-        for (Chromosome<Boolean> chromosome : population) {
+    private void evaluate(Collection<BitChromosome> population) {
+        for (BitChromosome chromosome : population) {
             chromosome.calculateFitness();
         }
     }
@@ -171,8 +179,8 @@ public class GeneticAlgorithm {
      * @param factor the current value of the {@link #compFactor}
      * @return {@code true} if a given child is successful
      */
-    private boolean isSuccessful(Chromosome<Boolean> child, Chromosome<Boolean> firstParent,
-                                 Chromosome<Boolean> secondParent, double factor) {
+    private boolean isSuccessful(BitChromosome child, BitChromosome firstParent,
+                                 BitChromosome secondParent, double factor) {
         double worseFitness = Math.min(firstParent.fitness, secondParent.fitness);
         double betterFitness = Math.max(firstParent.fitness, secondParent.fitness);
 
@@ -196,9 +204,9 @@ public class GeneticAlgorithm {
         int chromosomeSize = Integer.parseInt(args[0]);
 
         int tournamentSize = 2;
-        ISelection<Boolean> firstSelection = new TournamentSelection<>(tournamentSize);
-        ISelection<Boolean> secondSelection = new RandomSelection<>();
-        // ISelection<Boolean> secondSelection = firstSelection;
+        ISelection<BitChromosome> firstSelection = new TournamentSelection<>(tournamentSize);
+        ISelection<BitChromosome> secondSelection = new RandomSelection<>();
+        // ISelection<BitChromosome> secondSelection = firstSelection;
 
         ICompFactor compFactor = new ConstantCompFactor(0.7);
         // ICompFactor compFactor = new LinearCompFactor();
@@ -0,0 +1,282 @@
+package hr.fer.zemris.optjava.dz5.part2;
+
+/**
+ * The statistics of a single {@link OffspringSelection} generation.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public final class GenerationStatistics {
+
+    /**
+     * The header of the CSV format produced by {@link #toCsv()}.
+     */
+    public static final String CSV_HEADER = "thread,round,subPopulation,generation,populationSize,evaluations,"
+            + "successful,poolSize,duplicates,fillIns,selectionPressure,successRatio,evaluationsPerSecond,"
+            + "bestFitness,meanFitness";
+
+    /**
+     * The name of the thread that evolved the population.
+     */
+    private final String thread;
+
+    /**
+     * The index of the SASEGASA reunification round.
+     */
+    private final int round;
+
+    /**
+     * The index of the sub-population within the round.
+     */
+    private final int subPopulation;
+
+    /**
+     * The index of the generation within a single {@link OffspringSelection#run} call.
+     */
+    private final int generation;
+
+    /**
+     * The size the generation was bred up to.
+     */
+    private final int populationSize;
+
+    /**
+     * The number of evaluated children.
+     */
+    private final int evaluations;
+
+    /**
+     * The number of unique successful children.
+     */
+    private final int successful;
+
+    /**
+     * The number of unique unsuccessful children.
+     */
+    private final int poolSize;
+
+    /**
+     * The number of children that were discarded as duplicates.
+     */
+    private final int duplicates;
+
+    /**
+     * The number of parents and random immigrants added to fill up the new population.
+     */
+    private final int fillIns;
+
+    /**
+     * The time it took to create the generation, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The best fitness in the new population.
+     */
+    private final double bestFitness;
+
+    /**
+     * The mean fitness of the new population.
+     */
+    private final double meanFitness;
+
+    /**
+     * Constructs a {@link GenerationStatistics}.
+     *
+     * @param thread the name of the thread that evolved the population
+     * @param round the index of the SASEGASA reunification round
+     * @param subPopulation the index of the sub-population within the round
+     * @param generation the index of the generation
+     * @param populationSize the size the generation was bred up to
+     * @param evaluations the number of evaluated children
+     * @param successful the number of unique successful children
+     * @param poolSize the number of unique unsuccessful children
+     * @param duplicates the number of children that were discarded as duplicates
+     * @param fillIns the number of parents and random immigrants added to fill up the new population
+     * @param elapsedNanos the time it took to create the generation, in nanoseconds
+     * @param bestFitness the best fitness in the new population
+     * @param meanFitness the mean fitness of the new population
+     */
+    public GenerationStatistics(String thread, int round, int subPopulation, int generation, int populationSize,
+                                int evaluations, int successful, int poolSize, int duplicates, int fillIns,
+                                long elapsedNanos, double bestFitness, double meanFitness) {
+        this.thread = thread;
+        this.round = round;
+        this.subPopulation = subPopulation;
+        this.generation = generation;
+        this.populationSize = populationSize;
+        this.evaluations = evaluations;
+        this.successful = successful;
+        this.poolSize = poolSize;
+        this.duplicates = duplicates;
+        this.fillIns = fillIns;
+        this.elapsedNanos = elapsedNanos;
+        this.bestFitness = bestFitness;
+        this.meanFitness = meanFitness;
+    }
+
+    /**
+     * Returns the name of the thread that evolved the population.
+     *
+     * @return the name of the thread
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * Returns the index of the SASEGASA reunification round.
+     *
+     * @return the index of the round
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Returns the index of the sub-population within the round.
+     *
+     * @return the index of the sub-population
+     */
+    public int getSubPopulation() {
+        return subPopulation;
+    }
+
+    /**
+     * Returns the index of the generation within a single {@link OffspringSelection#run} call.
+     *
+     * @return the index of the generation
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the size the generation was bred up to.
+     *
+     * @return the size of the population
+     */
+    public int getPopulationSize() {
+        return populationSize;
+    }
+
+    /**
+     * Returns the number of evaluated children.
+     *
+     * @return the number of evaluated children
+     */
+    public int getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Returns the number of unique successful children.
+     *
+     * @return the number of unique successful children
+     */
+    public int getSuccessful() {
+        return successful;
+    }
+
+    /**
+     * Returns the number of unique unsuccessful children.
+     *
+     * @return the size of the pool
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * Returns the number of children that were discarded as duplicates.
+     *
+     * @return the number of duplicates
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Returns the number of parents and random immigrants added to fill up the new population.
+     *
+     * @return the number of fill-ins
+     */
+    public int getFillIns() {
+        return fillIns;
+    }
+
+    /**
+     * Returns the time it took to create the generation, in nanoseconds.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the best fitness in the new population.
+     *
+     * @return the best fitness
+     */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * Returns the mean fitness of the new population.
+     *
+     * @return the mean fitness
+     */
+    public double getMeanFitness() {
+        return meanFitness;
+    }
+
+    /**
+     * Returns the actual selection pressure - the number of evaluated children per member of the population.
+     *
+     * @return the actual selection pressure
+     */
+    public double getSelectionPressure() {
+        return (double) evaluations / populationSize;
+    }
+
+    /**
+     * Returns the success ratio - the share of the new population made of successful children.
+     *
+     * @return the success ratio
+     */
+    public double getSuccessRatio() {
+        return (double) successful / populationSize;
+    }
+
+    /**
+     * Returns the number of evaluated children per second.
+     *
+     * @return the number of evaluations per second
+     */
+    public double getEvaluationsPerSecond() {
+        return elapsedNanos == 0 ? 0 : evaluations * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the statistics as a line of CSV, with the columns described by {@link #CSV_HEADER}.
+     *
+     * @return the statistics as CSV
+     */
+    public String toCsv() {
+        return thread + "," + round + "," + subPopulation + "," + generation + "," + populationSize + ","
+                + evaluations + "," + successful + "," + poolSize + "," + duplicates + "," + fillIns + ","
+                + getSelectionPressure() + "," + getSuccessRatio() + "," + getEvaluationsPerSecond() + ","
+                + bestFitness + "," + meanFitness;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("round %d, sub-population %d, generation %d: selection pressure %.2f, "
+                        + "success ratio %.2f, pool %d, duplicates %d, fill-ins %d, %.0f evaluations/s, "
+                        + "best %.1f, mean %.1f",
+                round, subPopulation, generation, getSelectionPressure(), getSuccessRatio(), poolSize, duplicates,
+                fillIns, getEvaluationsPerSecond(), bestFitness, meanFitness);
+    }
+}
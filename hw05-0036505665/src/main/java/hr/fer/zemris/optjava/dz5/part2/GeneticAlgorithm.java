@@ -1,18 +1,20 @@
 package hr.fer.zemris.optjava.dz5.part2;
 
-import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
 import hr.fer.zemris.optjava.dz5.ga.chromosome.PermutationChromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.QAPProblem;
 import hr.fer.zemris.optjava.dz5.ga.crossover.OrderBasedCrossover;
+import hr.fer.zemris.optjava.dz5.ga.localsearch.RobustTabuSearch;
 import hr.fer.zemris.optjava.dz5.ga.mutation.ExchangeMutation;
+import hr.fer.zemris.optjava.dz5.ga.population.Population;
 import hr.fer.zemris.optjava.dz5.ga.selection.TournamentSelection;
 import hr.fer.zemris.optjava.dz5.ga.factor.ConstantCompFactor;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 /**
  * An implementation of SASEGASA for solving the Quadratic Assignment Problem.
@@ -23,24 +25,14 @@ import java.util.*;
 public class GeneticAlgorithm {
 
     /**
-     * The QAP matrix of distances.
+     * The QAP instance to solve.
      */
-    private static int[][] distanceMatrix;
+    private QAPProblem problem;
 
     /**
-     * The QAP flow matrix.
+     * The factory of {@link OffspringSelection} instances used in SASEGASA, one per sub-population task.
      */
-    private static int[][] flowMatrix;
-
-    /**
-     * An instance of {@link OffspringSelection} used in SASEGASA.
-     */
-    private OffspringSelection os;
-
-    /**
-     * The size of the chromosomes.
-     */
-    private int chromosomeSize;
+    private Supplier<OffspringSelection> osFactory;
 
     /**
      * The total size of the population.
@@ -53,61 +45,147 @@ public class GeneticAlgorithm {
     private int popCount;
 
     /**
-     * Constructs an instance of {@link GeneticAlgorithm}.
+     * The number of threads evolving sub-populations.
+     */
+    private int threadCount;
+
+    /**
+     * Constructs an instance of {@link GeneticAlgorithm} that evolves the sub-populations one after another.
      *
      * @param os tn instance of {@link OffspringSelection} to use in SASEGASA
-     * @param chromosomeSize the size of the chromosomes
+     * @param problem the QAP instance to solve
      * @param totalPopSize the total size of the population
      * @param popCount the initial number of populations
      */
-    public GeneticAlgorithm(OffspringSelection os, int chromosomeSize,
+    public GeneticAlgorithm(OffspringSelection os, QAPProblem problem,
                             int totalPopSize, int popCount) {
-        this.os = os;
-        this.chromosomeSize = chromosomeSize;
+        this(() -> os, problem, totalPopSize, popCount, 1);
+    }
+
+    /**
+     * Constructs an instance of {@link GeneticAlgorithm} that evolves the sub-populations in parallel.
+     * {@link OffspringSelection} is not thread-safe, so the factory must return a new instance on each call.
+     *
+     * @param osFactory the factory of {@link OffspringSelection} instances, one per sub-population task
+     * @param problem the QAP instance to solve
+     * @param totalPopSize the total size of the population
+     * @param popCount the initial number of populations
+     * @param threadCount the number of threads evolving sub-populations; with {@code popCount} threads,
+     *                    each sub-population of the first round gets its own thread
+     * @throws IllegalArgumentException if the thread count is not positive
+     */
+    public GeneticAlgorithm(Supplier<OffspringSelection> osFactory, QAPProblem problem,
+                            int totalPopSize, int popCount, int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got " + threadCount);
+        }
+
+        this.osFactory = osFactory;
+        this.problem = problem;
         this.totalPopSize = totalPopSize;
         this.popCount = popCount;
+        this.threadCount = threadCount;
     }
 
     /**
      * Executes the algorithm.
      */
     private void run() {
-        List<Chromosome<Integer>> population = getInitialPopulation();
+        List<PermutationChromosome> population = getInitialPopulation();
+        ExecutorService executor = threadCount == 1 ? null : Executors.newFixedThreadPool(threadCount);
+
+        try {
+            for (int round = 0; popCount > 0; round++) {
+                PermutationChromosome best = Collections.max(population);
+                System.out.println(best + " - " + -best.fitness);
+
+                int popSize = totalPopSize / popCount;
+                int sliceSize = population.size() / popCount;
+                List<Callable<Population<PermutationChromosome>>> tasks = new ArrayList<>(popCount);
+
+                int start = 0;
+                for (int i = 0; i < popCount; i++) {
+                    boolean last = i == popCount - 1;
+                    int end = last ? population.size() : start + sliceSize;
+                    Population<PermutationChromosome> subPopulation =
+                            new Population<>(population.subList(start, end));
+
+                    // merging removes duplicates and sub-populations that were not filled up may have shrunk,
+                    // so each sub-population is bred up to its intended size
+                    int size = last ? totalPopSize - i * popSize : popSize;
+                    int roundIndex = round;
+                    int subPopulationIndex = i;
+                    tasks.add(() -> osFactory.get().run(subPopulation, size, roundIndex, subPopulationIndex));
+                    start = end;
+                }
 
-        while (popCount > 0) {
-            Chromosome<Integer> best = Collections.max(population);
-            System.out.println(best + " - " + -best.fitness);
+                population = evolve(tasks, executor);
+                popCount--;
+            }
 
-            int popSize = totalPopSize / popCount;
-            List<Chromosome<Integer>> newPopulation = new ArrayList<>();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
 
-            int start = 0;
-            for (int i = 0; i < popCount; i++) {
-                List<Chromosome<Integer>> subPopList;
+    /**
+     * Evolves the sub-populations by executing the given tasks and merges the results once all tasks are done.
+     * The tasks run on the given executor if it exists and on the calling thread otherwise.
+     *
+     * @param tasks the tasks evolving the sub-populations
+     * @param executor the executor to run the tasks on, or {@code null}
+     * @return the merged population
+     * @throws InterruptedException if interrupted while waiting for the tasks
+     */
+    private List<PermutationChromosome> evolve(List<Callable<Population<PermutationChromosome>>> tasks,
+                                               ExecutorService executor) throws InterruptedException {
+        List<PermutationChromosome> newPopulation = new ArrayList<>(totalPopSize);
 
-                if (i == popCount - 1) {
-                    subPopList = population.subList(start, population.size());
-                } else {
-                    subPopList = population.subList(start, start + popSize);
-                }
+        if (executor == null) {
+            for (Callable<Population<PermutationChromosome>> task : tasks) {
+                newPopulation.addAll(call(task));
+            }
+
+            return newPopulation;
+        }
 
-                newPopulation.addAll(os.run(new HashSet<>(subPopList)));
-                start += popSize;
+        for (Future<Population<PermutationChromosome>> future : executor.invokeAll(tasks)) {
+            try {
+                newPopulation.addAll(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Sub-population evolution failed", e.getCause());
             }
+        }
+
+        return newPopulation;
+    }
 
-            population = newPopulation;
-            popCount--;
+    /**
+     * Executes the given task on the calling thread.
+     *
+     * @param task the task to execute
+     * @return the result of the task
+     */
+    private static Population<PermutationChromosome> call(Callable<Population<PermutationChromosome>> task) {
+        try {
+            return task.call();
+        } catch (Exception e) {
+            throw new IllegalStateException("Sub-population evolution failed", e);
         }
     }
 
     /**
      * Returns a population initialized with random chromosomes.
      */
-    private List<Chromosome<Integer>> getInitialPopulation() {
-        Set<Chromosome<Integer>> populationSet = new HashSet<>(totalPopSize);
+    private List<PermutationChromosome> getInitialPopulation() {
+        Population<PermutationChromosome> populationSet = new Population<>(totalPopSize);
 
         while (populationSet.size() < totalPopSize) {
-            Chromosome<Integer> chromosome = new PermutationChromosome(chromosomeSize, distanceMatrix, flowMatrix);
+            PermutationChromosome chromosome = new PermutationChromosome(problem);
             chromosome.calculateFitness();
             
             populationSet.add(chromosome);
@@ -120,57 +198,54 @@ public class GeneticAlgorithm {
      * The main method. Reads the QAP data file and executes the algorithm.
      *
      * @param args the command-line arguments, 3 expected - path to data,
-     *             total population size, initial number of populations
+     *             total population size, initial number of populations - and optionally
+     *             the number of robust tabu search iterations used for improving each child (0 for none),
+     *             whether generations without enough unique children are filled up with random immigrants,
+     *             the number of threads and the path of a CSV file to write the statistics of each generation to
      */
     public static void main(String[] args) {
-        if (args.length != 3) {
-            System.out.println("Expected 3 arguments, got " + args.length);
+        if (args.length < 3 || args.length > 7) {
+            System.out.println("Expected 3 to 7 arguments, got " + args.length);
             System.exit(1);
         }
 
         Path dataPath = Paths.get(args[0]);
         int totalPopSize = Integer.parseInt(args[1]);
         int initialPopCount = Integer.parseInt(args[2]);
-
-        int size = 0;
-        try (BufferedReader br = Files.newBufferedReader(dataPath)) {
-            size = Integer.parseInt(br.readLine().trim());
-            br.readLine();
-            distanceMatrix = parseMatrix(br, size);
-            br.readLine();
-            flowMatrix = parseMatrix(br, size);
-
+        int tabuIterations = args.length >= 4 ? Integer.parseInt(args[3]) : 0;
+        boolean fillUp = args.length >= 5 && Boolean.parseBoolean(args[4]);
+        int threadCount = args.length >= 6 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        Path statisticsPath = args.length == 7 ? Paths.get(args[6]) : null;
+
+        QAPProblem problem = null;
+        try {
+            problem = QAPProblem.read(dataPath);
         } catch (IOException e) {
-            System.out.println("I/O error occured!");
+            System.out.println("Could not read the QAP instance: " + e.getMessage());
             System.exit(1);
         }
 
-        OffspringSelection os = new OffspringSelection(
-                new OrderBasedCrossover(), new ExchangeMutation<>(),
-                new TournamentSelection<>(2), new ConstantCompFactor(0.7));
-
-        new GeneticAlgorithm(os, size, totalPopSize, initialPopCount).run();
-    }
-
-    /**
-     * Parses a square matrix of the specified size using the given {@link BufferedReader}.
-     *
-     * @param br the {@link BufferedReader} to use
-     * @param size the size of the matrix
-     * @return the parsed matrix
-     * @throws IOException if an I/O error occurs
-     */
-    private static int[][] parseMatrix(BufferedReader br, int size) throws IOException {
-        int[][] matrix = new int[size][size];
-
-        for (int i = 0; i < size; i++) {
-            String[] rowElements = br.readLine().trim().split("\\s+");
-
-            for (int j = 0; j < size; j++) {
-                matrix[i][j] = Integer.parseInt(rowElements[j]);
+        StatisticsRecorder recorder = statisticsPath != null ? new StatisticsRecorder() : null;
+        Supplier<OffspringSelection> osFactory = () -> {
+            OffspringSelection os = new OffspringSelection(
+                    new OrderBasedCrossover(), new ExchangeMutation<>(),
+                    new TournamentSelection<>(2), new ConstantCompFactor(0.7),
+                    tabuIterations > 0 ? new RobustTabuSearch(tabuIterations) : null, fillUp);
+            os.setListener(recorder);
+
+            return os;
+        };
+
+        new GeneticAlgorithm(osFactory, problem, totalPopSize, initialPopCount, threadCount).run();
+
+        if (recorder != null) {
+            try {
+                recorder.writeCsv(statisticsPath);
+                System.out.println("Statistics of " + recorder.getRecorded() + " generations written to "
+                        + statisticsPath);
+            } catch (IOException e) {
+                System.out.println("Could not write the statistics: " + e.getMessage());
             }
         }
-
-        return matrix;
     }
 }
@@ -0,0 +1,21 @@
+package hr.fer.zemris.optjava.dz5.part2;
+
+/**
+ * An interface to be implemented by classes that receive the statistics of each
+ * {@link OffspringSelection} generation.
+ *
+ * Sub-populations may be evolved in parallel, so implementations shared between several
+ * {@link OffspringSelection} instances must be thread-safe.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public interface IGenerationListener {
+
+    /**
+     * Called after a generation is completed.
+     *
+     * @param statistics the statistics of the completed generation
+     */
+    void generationCompleted(GenerationStatistics statistics);
+}
@@ -1,19 +1,26 @@
 package hr.fer.zemris.optjava.dz5.part2;
 
-import hr.fer.zemris.optjava.dz5.ga.chromosome.Chromosome;
-import hr.fer.zemris.optjava.dz5.ga.crossover.ICrossover;
-import hr.fer.zemris.optjava.dz5.ga.mutation.IMutation;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.PermutationChromosome;
+import hr.fer.zemris.optjava.dz5.ga.crossover.IntCrossover;
+import hr.fer.zemris.optjava.dz5.ga.localsearch.ILocalSearch;
+import hr.fer.zemris.optjava.dz5.ga.mutation.IntMutation;
+import hr.fer.zemris.optjava.dz5.ga.population.Population;
 import hr.fer.zemris.optjava.dz5.ga.selection.ISelection;
-import hr.fer.zemris.optjava.dz5.ga.selection.RandomSelection;
 import hr.fer.zemris.optjava.dz5.ga.factor.ICompFactor;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * An implementation of Offspring Selection to be used in SASEGASA.
+ * An implementation of Offspring Selection to be used in SASEGASA for solving the Quadratic Assignment Problem.
+ *
+ * Duplicate children are discarded, so a generation may run out of unique children before it reaches the population
+ * size. By default such a generation is kept smaller and the next one is bred up to the full size again. Optionally,
+ * it is filled up with the parents in random order and then with random immigrants, i.e. random chromosomes, so that
+ * every generation has the full size.
+ *
+ * Optionally, each child is improved by a local search before it is compared to its parents, and the statistics
+ * of each generation are reported to an {@link IGenerationListener}.
  *
  * @author Bruna Dujmović
  *
@@ -38,83 +45,175 @@ public class OffspringSelection {
     /**
      * The crossover to use for combining parent chromosomes.
      */
-    private ICrossover<Integer> crossover;
+    private IntCrossover crossover;
 
     /**
      * The mutation to use for modifying child chromosomes.
      */
-    private IMutation<Integer> mutation;
+    private IntMutation mutation;
 
     /**
      * The type of GA selection to use.
      */
-    private ISelection<Integer> selection;
+    private ISelection<PermutationChromosome> selection;
 
     /**
-     * An implementation of random selection.
+     * The comparison factor for determining if a child chromosome is successful.
      */
-    private ISelection<Integer> randomSelection = new RandomSelection<>();
+    private ICompFactor compFactor;
 
     /**
-     * The comparison factor for determining if a child chromosome is successful.
+     * The local search used for improving children, or {@code null} if children are not improved.
      */
-    private ICompFactor compFactor;
+    private ILocalSearch<PermutationChromosome> localSearch;
+
+    /**
+     * The listener notified after each generation, or {@code null} if statistics are not collected.
+     */
+    private IGenerationListener listener;
+
+    /**
+     * Whether generations without enough unique children are filled up with the parents and random immigrants.
+     */
+    private boolean fillUp;
+
+    /**
+     * Constructs an instance of {@link OffspringSelection}.
+     *
+     * @param crossover the crossover to use for combining parent chromosomes
+     * @param mutation the mutation to use for modifying child chromosomes
+     * @param selection the type of GA selection to use
+     * @param compFactor the comparison factor for determining if a child chromosome is successful
+     */
+    public OffspringSelection(IntCrossover crossover, IntMutation mutation,
+                              ISelection<PermutationChromosome> selection, ICompFactor compFactor) {
+        this(crossover, mutation, selection, compFactor, null);
+    }
 
     /**
-     * Constructs an instance of {@link hr.fer.zemris.optjava.dz5.part1.GeneticAlgorithm}.
+     * Constructs an instance of {@link OffspringSelection} that improves children using the given local search.
      *
      * @param crossover the crossover to use for combining parent chromosomes
      * @param mutation the mutation to use for modifying child chromosomes
      * @param selection the type of GA selection to use
+     * @param compFactor the comparison factor for determining if a child chromosome is successful
+     * @param localSearch the local search used for improving children, or {@code null} for none
      */
-    public OffspringSelection(ICrossover<Integer> crossover, IMutation<Integer> mutation,
-                              ISelection<Integer> selection, ICompFactor compFactor) {
+    public OffspringSelection(IntCrossover crossover, IntMutation mutation, ISelection<PermutationChromosome> selection,
+                              ICompFactor compFactor, ILocalSearch<PermutationChromosome> localSearch) {
+        this(crossover, mutation, selection, compFactor, localSearch, false);
+    }
+
+    /**
+     * Constructs an instance of {@link OffspringSelection} that improves children using the given local search
+     * and optionally fills up generations without enough unique children.
+     *
+     * @param crossover the crossover to use for combining parent chromosomes
+     * @param mutation the mutation to use for modifying child chromosomes
+     * @param selection the type of GA selection to use
+     * @param compFactor the comparison factor for determining if a child chromosome is successful
+     * @param localSearch the local search used for improving children, or {@code null} for none
+     * @param fillUp {@code true} to fill up generations without enough unique children with the parents
+     *               in random order and then with random immigrants, {@code false} to keep them smaller
+     */
+    public OffspringSelection(IntCrossover crossover, IntMutation mutation, ISelection<PermutationChromosome> selection,
+                              ICompFactor compFactor, ILocalSearch<PermutationChromosome> localSearch, boolean fillUp) {
         this.crossover = crossover;
         this.mutation = mutation;
         this.selection = selection;
         this.compFactor = compFactor;
+        this.localSearch = localSearch;
+        this.fillUp = fillUp;
+    }
+
+    /**
+     * Sets the listener notified with the statistics of each generation.
+     *
+     * @param listener the listener, or {@code null} to stop collecting statistics
+     */
+    public void setListener(IGenerationListener listener) {
+        this.listener = listener;
     }
 
     /**
      * Executes the algorithm.
      */
-    public Set<Chromosome<Integer>> run(Set<Chromosome<Integer>> population) {
-        final int popSize = population.size();
+    public Population<PermutationChromosome> run(Population<PermutationChromosome> population) {
+        return run(population, population.size(), 0, 0);
+    }
+
+    /**
+     * Executes the algorithm, breeding each generation up to the given size. If filling up is enabled, a smaller
+     * initial population, e.g. one whose duplicates were removed when it was merged, is first filled up with
+     * random immigrants.
+     *
+     * @param population the initial population
+     * @param popSize the size of the population
+     * @param round the index of the SASEGASA reunification round, reported in the statistics
+     * @param subPopulation the index of the sub-population within the round, reported in the statistics
+     * @return the final population
+     */
+    public Population<PermutationChromosome> run(Population<PermutationChromosome> population, int popSize,
+                                                 int round, int subPopulation) {
+        int initialFillIns = fillUp && population.size() < popSize ? fill(population, population, popSize) : 0;
 
         int i = 0;
         double actSelPress = 0.0;
         while (i < MAX_ITERATIONS && actSelPress < MAX_SEL_PRESS) {
-            Set<Chromosome<Integer>> newPopulation = new HashSet<>();
-            Set<Chromosome<Integer>> pool = new HashSet<>();
+            long start = listener != null ? System.nanoTime() : 0;
+            Population<PermutationChromosome> newPopulation = new Population<>(popSize);
+            Population<PermutationChromosome> pool = new Population<>();
             double factor = compFactor.getFactor();
 
+            int generated = 0;
+            int duplicates = 0;
             while (newPopulation.size() < SUCC_RATIO * popSize
-                    && (newPopulation.size() + pool.size()) < population.size() * MAX_SEL_PRESS) {
-                Chromosome<Integer> firstParent = selection.from(population);
-                Chromosome<Integer> secondParent = selection.from(population);
+                    && generated < popSize * MAX_SEL_PRESS) {
+                PermutationChromosome firstParent = selection.from(population);
+                PermutationChromosome secondParent = selection.from(population);
 
-                Collection<Chromosome<Integer>> children = crossover.of(firstParent, secondParent);
+                Collection<PermutationChromosome> children = crossover.of(firstParent, secondParent);
 
-                for (Chromosome<Integer> child : children) {
+                for (PermutationChromosome child : children) {
                     mutation.mutate(child);
-                    child.calculateFitness();
+                    if (localSearch != null) {
+                        localSearch.improve(child);
+                    } else {
+                        child.calculateFitness();
+                    }
+
+                    generated++;
 
                     if (newPopulation.size() >= SUCC_RATIO * popSize) {
                         break;
                     }
 
-                    if (isSuccessful(child, firstParent, secondParent, factor)) {
-                        newPopulation.add(child);
-                    } else {
-                        pool.add(child);
+                    boolean added = isSuccessful(child, firstParent, secondParent, factor)
+                            ? newPopulation.add(child)
+                            : pool.add(child);
+
+                    if (!added) {
+                        duplicates++;
                     }
                 }
             }
 
-            actSelPress = (double) (newPopulation.size() + pool.size()) / popSize;
+            actSelPress = (double) generated / popSize;
+            int successful = newPopulation.size();
+            int poolSize = pool.size();
 
-            while (newPopulation.size() < popSize) {
-                newPopulation.add(randomSelection.from(pool));
+            // duplicates are not added, so the pool may run out before the population is full
+            while (newPopulation.size() < popSize && !pool.isEmpty()) {
+                int randomIndex = ThreadLocalRandom.current().nextInt(pool.size());
+                newPopulation.add(pool.removeAt(randomIndex));
+            }
+
+            int fillIns = fillUp && newPopulation.size() < popSize ? fill(newPopulation, population, popSize) : 0;
+
+            if (listener != null) {
+                listener.generationCompleted(statistics(round, subPopulation, i, popSize, generated, successful,
+                        poolSize, duplicates, i == 0 ? initialFillIns + fillIns : fillIns,
+                        System.nanoTime() - start, newPopulation));
             }
 
             population = newPopulation;
@@ -124,6 +223,75 @@ public class OffspringSelection {
         return population;
     }
 
+    /**
+     * Fills the new population up to the given size with the parents in random order, and then with random
+     * immigrants if the parents are already in it.
+     *
+     * @param newPopulation the new population
+     * @param parents the population the new population was created from
+     * @param popSize the size to fill the new population up to
+     * @return the number of added chromosomes
+     */
+    private static int fill(Population<PermutationChromosome> newPopulation,
+                            Population<PermutationChromosome> parents, int popSize) {
+        int initialSize = newPopulation.size();
+
+        int[] order = new int[parents.size()];
+        for (int i = 0; i < order.length; i++) {
+            int j = ThreadLocalRandom.current().nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+
+        for (int i = 0; i < order.length && newPopulation.size() < popSize; i++) {
+            newPopulation.add(parents.get(order[i]));
+        }
+
+        while (newPopulation.size() < popSize) {
+            PermutationChromosome chromosome = parents.get(0).copy();
+            chromosome.randomize();
+            chromosome.calculateFitness();
+
+            newPopulation.add(chromosome);
+        }
+
+        return newPopulation.size() - initialSize;
+    }
+
+    /**
+     * Returns the statistics of a completed generation, calculating the best and mean fitness of the new population.
+     *
+     * @param round the index of the reunification round
+     * @param subPopulation the index of the sub-population within the round
+     * @param generation the index of the generation
+     * @param populationSize the size the generation was bred up to
+     * @param evaluations the number of evaluated children
+     * @param successful the number of unique successful children
+     * @param poolSize the number of unique unsuccessful children
+     * @param duplicates the number of children that were discarded as duplicates
+     * @param fillIns the number of parents and random chromosomes added to fill up the new population
+     * @param elapsedNanos the time it took to create the generation, in nanoseconds
+     * @param newPopulation the new population
+     * @return the statistics of the generation
+     */
+    private static GenerationStatistics statistics(int round, int subPopulation, int generation, int populationSize,
+                                                   int evaluations, int successful, int poolSize, int duplicates,
+                                                   int fillIns, long elapsedNanos,
+                                                   Population<PermutationChromosome> newPopulation) {
+        double best = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+
+        for (int i = 0; i < newPopulation.size(); i++) {
+            double fitness = newPopulation.get(i).fitness;
+            best = Math.max(best, fitness);
+            sum += fitness;
+        }
+
+        return new GenerationStatistics(Thread.currentThread().getName(), round, subPopulation, generation,
+                populationSize, evaluations, successful, poolSize, duplicates, fillIns, elapsedNanos, best,
+                sum / newPopulation.size());
+    }
+
     /**
      * Returns {@code true} if a given child is successful when compared to its parents.
      *
@@ -133,8 +301,8 @@ public class OffspringSelection {
      * @param factor the current value of the {@link #compFactor}
      * @return {@code true} if a given child is successful
      */
-    private boolean isSuccessful(Chromosome<Integer> child, Chromosome<Integer> firstParent,
-                                 Chromosome<Integer> secondParent, double factor) {
+    private boolean isSuccessful(PermutationChromosome child, PermutationChromosome firstParent,
+                                 PermutationChromosome secondParent, double factor) {
         double worseFitness = Math.min(firstParent.fitness, secondParent.fitness);
         double betterFitness = Math.max(firstParent.fitness, secondParent.fitness);
 
@@ -0,0 +1,106 @@
+package hr.fer.zemris.optjava.dz5.part2;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link IGenerationListener} that keeps the statistics of the most recent generations in a ring buffer
+ * of fixed capacity, so recording never allocates more memory however long the algorithm runs.
+ * The recorded statistics can be exported as CSV.
+ *
+ * The recorder is thread-safe, so a single instance can be shared by sub-populations evolved in parallel.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class StatisticsRecorder implements IGenerationListener {
+
+    /**
+     * The default number of recorded generations.
+     */
+    private static final int DEFAULT_CAPACITY = 100_000;
+
+    /**
+     * The ring buffer of recorded statistics.
+     */
+    private final GenerationStatistics[] buffer;
+
+    /**
+     * The total number of generations recorded so far, including the overwritten ones.
+     */
+    private long recorded;
+
+    /**
+     * Constructs a {@link StatisticsRecorder} of the default capacity.
+     */
+    public StatisticsRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a {@link StatisticsRecorder} that keeps the statistics of the given number of generations.
+     *
+     * @param capacity the number of generations to keep
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public StatisticsRecorder(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, got " + capacity);
+        }
+
+        this.buffer = new GenerationStatistics[capacity];
+    }
+
+    @Override
+    public synchronized void generationCompleted(GenerationStatistics statistics) {
+        buffer[(int) (recorded % buffer.length)] = statistics;
+        recorded++;
+    }
+
+    /**
+     * Returns the total number of generations recorded so far, including the ones no longer kept.
+     *
+     * @return the total number of recorded generations
+     */
+    public synchronized long getRecorded() {
+        return recorded;
+    }
+
+    /**
+     * Returns the kept statistics, from the oldest to the newest.
+     *
+     * @return the kept statistics
+     */
+    public synchronized List<GenerationStatistics> getStatistics() {
+        int kept = (int) Math.min(recorded, buffer.length);
+        List<GenerationStatistics> statistics = new ArrayList<>(kept);
+
+        for (long i = recorded - kept; i < recorded; i++) {
+            statistics.add(buffer[(int) (i % buffer.length)]);
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Writes the kept statistics to the given file as CSV, with a header line.
+     *
+     * @param path the path to the file
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeCsv(Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(GenerationStatistics.CSV_HEADER);
+            writer.newLine();
+
+            for (GenerationStatistics statistics : getStatistics()) {
+                writer.write(statistics.toCsv());
+                writer.newLine();
+            }
+        }
+    }
+}
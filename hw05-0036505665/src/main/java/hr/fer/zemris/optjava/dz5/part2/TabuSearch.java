@@ -0,0 +1,54 @@
+package hr.fer.zemris.optjava.dz5.part2;
+
+import hr.fer.zemris.optjava.dz5.ga.chromosome.PermutationChromosome;
+import hr.fer.zemris.optjava.dz5.ga.chromosome.QAPProblem;
+import hr.fer.zemris.optjava.dz5.ga.localsearch.RobustTabuSearch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Solves the Quadratic Assignment Problem using {@link RobustTabuSearch} alone, starting from a random solution.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class TabuSearch {
+
+    /**
+     * The main method. Reads the QAP data file and executes the search.
+     *
+     * @param args the command-line arguments, 2 expected - path to data, number of iterations -
+     *             and optionally the target cost at which the search stops
+     */
+    public static void main(String[] args) {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Expected 2 or 3 arguments, got " + args.length);
+            System.exit(1);
+        }
+
+        Path dataPath = Paths.get(args[0]);
+        int iterations = Integer.parseInt(args[1]);
+        long targetCost = args.length == 3 ? Long.parseLong(args[2]) : Long.MIN_VALUE;
+
+        QAPProblem problem = null;
+        try {
+            problem = QAPProblem.read(dataPath);
+        } catch (IOException e) {
+            System.out.println("Could not read the QAP instance: " + e.getMessage());
+            System.exit(1);
+        }
+
+        PermutationChromosome chromosome = new PermutationChromosome(problem);
+        chromosome.calculateFitness();
+        System.out.println("Initial: " + chromosome + " - " + chromosome.getCost());
+
+        long start = System.nanoTime();
+        new RobustTabuSearch(iterations, targetCost).improve(chromosome);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("Best: " + chromosome + " - " + chromosome.getCost());
+        System.out.printf("Time: %.1f ms%n", elapsed / 1e6);
+    }
+}
@@ -1,7 +1,5 @@
 package hr.fer.zemris.optjava.dz6;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -58,14 +56,10 @@ public class City {
      * Finds a given number of cities that are the closest to this city.
      *
      * @param closestCount the number of closest cities to find
-     * @param cities a list of all cities
-     * @param distances the distances from this city to all other cities
+     * @param tree a k-d tree of all cities
      */
-    public void findClosest(int closestCount, List<City> cities, double[] distances) {
-        List<City> copy = new ArrayList<>(cities);
-        copy.sort(Comparator.comparingDouble(c -> distances[c.index]));
-
-        closestCities = copy.subList(1, closestCount + 1);
+    public void findClosest(int closestCount, KDTree tree) {
+        closestCities = tree.findClosest(this, closestCount);
     }
 
     @Override
@@ -0,0 +1,277 @@
+package hr.fer.zemris.optjava.dz6;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A 2-dimensional k-d tree of cities for finding the closest cities of a city.
+ *
+ * The tree is implicit - the cities are permuted so that the median of each range, split alternately by the
+ * x and y coordinate, is in the middle of the range, with closer cities to its left and farther ones to its
+ * right. Building takes O(n log n) expected time and a query for the k closest cities takes O(k log n + log n)
+ * time for evenly spread cities, so the candidate lists of all cities are found in O(n log n) time.
+ *
+ * Queries only read the tree, so they can be done by multiple threads.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class KDTree {
+
+    /**
+     * The cities in the tree order.
+     */
+    private final City[] nodes;
+
+    /**
+     * Constructs a {@link KDTree} of the given cities.
+     *
+     * @param cities the cities to put in the tree
+     */
+    public KDTree(List<City> cities) {
+        nodes = cities.toArray(new City[0]);
+        build(0, nodes.length, 0);
+    }
+
+    /**
+     * Finds the given number of cities closest to the given city, not counting the city itself.
+     * If there are fewer other cities in the tree, all of them are returned.
+     *
+     * @param city the city whose closest cities to find
+     * @param count the number of closest cities to find
+     * @return the closest cities ordered by distance, closest first
+     */
+    public List<City> findClosest(City city, int count) {
+        Neighbours neighbours = new Neighbours(Math.min(count, nodes.length - 1));
+        if (neighbours.capacity > 0) {
+            search(city, 0, nodes.length, 0, neighbours);
+        }
+
+        return neighbours.toSortedList();
+    }
+
+    /**
+     * Arranges the cities in the given range into a subtree.
+     *
+     * @param from the index of the first city, inclusive
+     * @param to the index of the last city, exclusive
+     * @param depth the depth of the subtree, selecting the splitting coordinate
+     */
+    private void build(int from, int to, int depth) {
+        while (to - from > 1) {
+            int median = (from + to) >>> 1;
+            select(from, to - 1, median, depth % 2 == 0);
+
+            build(from, median, depth + 1);
+            from = median + 1;
+            depth++;
+        }
+    }
+
+    /**
+     * Partially sorts the given range by the given coordinate so that the city on the given index is the one
+     * that would be there if the range were sorted, using quickselect.
+     *
+     * @param left the index of the first city, inclusive
+     * @param right the index of the last city, inclusive
+     * @param k the index of the city to select
+     * @param byX {@code true} to compare the x coordinates, {@code false} to compare the y coordinates
+     */
+    private void select(int left, int right, int k, boolean byX) {
+        while (left < right) {
+            double pivot = coordinate(nodes[(left + right) >>> 1], byX);
+            int i = left;
+            int j = right;
+
+            while (i <= j) {
+                while (coordinate(nodes[i], byX) < pivot) {
+                    i++;
+                }
+                while (coordinate(nodes[j], byX) > pivot) {
+                    j--;
+                }
+
+                if (i <= j) {
+                    City city = nodes[i];
+                    nodes[i++] = nodes[j];
+                    nodes[j--] = city;
+                }
+            }
+
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adds the cities of the given subtree that are closer than the current farthest neighbour
+     * to the neighbours.
+     *
+     * @param city the city whose closest cities to find
+     * @param from the index of the first city of the subtree, inclusive
+     * @param to the index of the last city of the subtree, exclusive
+     * @param depth the depth of the subtree
+     * @param neighbours the closest cities found so far
+     */
+    private void search(City city, int from, int to, int depth, Neighbours neighbours) {
+        if (from >= to) {
+            return;
+        }
+
+        int median = (from + to) >>> 1;
+        City node = nodes[median];
+        if (node != city) {
+            neighbours.offer(node, squaredDistance(city, node));
+        }
+
+        boolean byX = depth % 2 == 0;
+        double difference = coordinate(city, byX) - coordinate(node, byX);
+
+        if (difference < 0) {
+            search(city, from, median, depth + 1, neighbours);
+            if (difference * difference < neighbours.bound()) {
+                search(city, median + 1, to, depth + 1, neighbours);
+            }
+        } else {
+            search(city, median + 1, to, depth + 1, neighbours);
+            if (difference * difference < neighbours.bound()) {
+                search(city, from, median, depth + 1, neighbours);
+            }
+        }
+    }
+
+    /**
+     * Returns the given coordinate of the given city.
+     *
+     * @param city the city
+     * @param x {@code true} for the x coordinate, {@code false} for the y coordinate
+     * @return the coordinate
+     */
+    private static double coordinate(City city, boolean x) {
+        return x ? city.x : city.y;
+    }
+
+    /**
+     * Returns the squared Euclidean distance between the given cities.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @return the squared distance
+     */
+    private static double squaredDistance(City first, City second) {
+        double dx = first.x - second.x;
+        double dy = first.y - second.y;
+
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * A bounded max-heap of the closest cities found so far, keyed by squared distance.
+     */
+    private static class Neighbours {
+
+        /**
+         * The maximum number of cities.
+         */
+        final int capacity;
+
+        /**
+         * The cities in the heap.
+         */
+        final City[] cities;
+
+        /**
+         * The squared distances of the cities in the heap.
+         */
+        final double[] distances;
+
+        /**
+         * The number of cities in the heap.
+         */
+        int size;
+
+        /**
+         * Constructs an empty {@link Neighbours}.
+         *
+         * @param capacity the maximum number of cities
+         */
+        Neighbours(int capacity) {
+            this.capacity = capacity;
+            cities = new City[capacity];
+            distances = new double[capacity];
+        }
+
+        /**
+         * Returns the squared distance a city must be closer than to be added.
+         *
+         * @return the squared distance of the farthest city if the heap is full, infinity otherwise
+         */
+        double bound() {
+            return size < capacity ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        /**
+         * Adds the given city if there is room or it is closer than the farthest city, which is then removed.
+         *
+         * @param city the city
+         * @param distance the squared distance of the city
+         */
+        void offer(City city, double distance) {
+            if (size < capacity) {
+                int i = size++;
+                while (i > 0 && distances[(i - 1) / 2] < distance) {
+                    cities[i] = cities[(i - 1) / 2];
+                    distances[i] = distances[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+
+                cities[i] = city;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                int i = 0;
+                while (2 * i + 1 < size) {
+                    int child = 2 * i + 1;
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+
+                    cities[i] = cities[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+
+                cities[i] = city;
+                distances[i] = distance;
+            }
+        }
+
+        /**
+         * Returns the cities ordered by distance, closest first.
+         *
+         * @return the ordered cities
+         */
+        List<City> toSortedList() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (first, second) -> Double.compare(distances[first], distances[second]));
+
+            List<City> sorted = new ArrayList<>(size);
+            for (int i : order) {
+                sorted.add(cities[i]);
+            }
+
+            return sorted;
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package hr.fer.zemris.optjava.dz6;
 
-import java.util.*;
+import java.util.Arrays;
 
 /**
  * Models an ant for solving the TSP.
  *
+ * Ants are reused between iterations. The tour is stored in an array of city indexes and the visited cities
+ * are marked with a stamp, so {@link #reset()} starts a new tour in O(1) time without allocating.
+ *
  * @author Bruna Dujmović
  *
  */
@@ -16,14 +19,24 @@ public class TSPAnt {
     public double tourLength;
 
     /**
-     * The tour of cities.
+     * The indexes of the cities in the tour, in the order of visiting.
+     */
+    public final int[] tour;
+
+    /**
+     * The number of cities visited so far.
+     */
+    private int size;
+
+    /**
+     * The stamps of visited cities, indexed by city index. A city is visited if its stamp equals {@link #stamp}.
      */
-    public List<City> tour;
+    private final int[] visited;
 
     /**
-     * A set of visited cities.
+     * The stamp marking the cities visited in the current tour.
      */
-    public Set<City> visited;
+    private int stamp;
 
     /**
      * Constructs a {@link TSPAnt}.
@@ -31,54 +44,84 @@ public class TSPAnt {
      * @param cityCount the number of TSP cities
      */
     public TSPAnt(int cityCount) {
-        tour = new ArrayList<>(cityCount);
-        visited = new HashSet<>();
+        tour = new int[cityCount];
+        visited = new int[cityCount];
+        stamp = 1;
+    }
+
+    /**
+     * Forgets the current tour, so the ant can start a new one.
+     */
+    public void reset() {
+        size = 0;
+        tourLength = 0;
+
+        if (++stamp == 0) {
+            Arrays.fill(visited, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Visits the city of the given index.
+     *
+     * @param city the index of the city to visit
+     */
+    public void visit(int city) {
+        tour[size++] = city;
+        visited[city] = stamp;
     }
 
     /**
-     * Visits the given city.
+     * Returns {@code true} if the city of the given index has been visited by this ant.
      *
-     * @param city the city to visit
+     * @param city the index of the city to check
+     * @return {@code true} if the city has been visited by this ant
      */
-    public void visit(City city) {
-        tour.add(city);
-        visited.add(city);
+    public boolean visited(int city) {
+        return visited[city] == stamp;
     }
 
     /**
-     * Returns {@code true} if the given city has been visited by this ant.
+     * Returns the index of the first city in this ant's tour.
      *
-     * @param city the city to check
-     * @return {@code true} if the given city has been visited by this ant
+     * @return the index of the first city in this ant's tour
      */
-    public boolean visited(City city) {
-        return visited.contains(city);
+    public int getInitialCity() {
+        return tour[0];
     }
 
     /**
-     * Returns {@code true} if each city in the given list has been visited by this ant.
+     * Returns the number of cities visited so far.
      *
-     * @param cities the list of cities to check
-     * @return {@code true} if each city in the given list has been visited by this ant
+     * @return the number of cities visited so far
      */
-    public boolean visitedAll(List<City> cities) {
-        return visited.containsAll(cities);
+    public int size() {
+        return size;
     }
 
     /**
-     * Returns the first city in this ant's tour.
+     * Makes this ant a copy of the given ant, including its tour length.
      *
-     * @return the first city in this ant's tour
+     * @param other the ant to copy
      */
-    public City getInitialCity() {
-        return tour.get(0);
+    public void copyFrom(TSPAnt other) {
+        reset();
+
+        for (int i = 0; i < other.size; i++) {
+            visit(other.tour[i]);
+        }
+
+        tourLength = other.tourLength;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
-        tour.forEach(city -> sb.append(city).append("\n"));
+        for (int i = 0; i < size; i++) {
+            sb.append(tour[i] + 1).append("\n");
+        }
 
         return sb.toString();
     }
@@ -88,11 +131,16 @@ public class TSPAnt {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TSPAnt tspAnt = (TSPAnt) o;
-        return tour.equals(tspAnt.tour);
+        return Arrays.equals(tour, 0, size, tspAnt.tour, 0, tspAnt.size);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(tour);
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + tour[i];
+        }
+
+        return hash;
     }
 }
@@ -0,0 +1,151 @@
+package hr.fer.zemris.optjava.dz6;
+
+import java.util.List;
+
+/**
+ * Euclidean distances between TSP cities.
+ *
+ * The distances are either precalculated into a dense matrix of n^2 doubles, or calculated from the coordinates
+ * when they are needed, which takes O(n) memory and is the only option for large instances. Instances of more
+ * than {@value #MAX_DENSE_CITY_COUNT} cities always calculate the distances when needed. In both cases
+ * the distances between each city and its candidates are stored as floats, in the same order as the candidates,
+ * which is accurate enough for ordering and pruning, but not for calculating tour lengths.
+ *
+ * Instances are immutable, so they can be shared by multiple threads.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class TSPDistances {
+
+    /**
+     * The largest number of cities for which the dense distance matrix is precalculated.
+     * The matrix then takes at most 800 MB, and its indexes are far from overflowing.
+     */
+    public static final int MAX_DENSE_CITY_COUNT = 10_000;
+
+    /**
+     * The number of cities.
+     */
+    private final int cityCount;
+
+    /**
+     * The x-coordinates of the cities.
+     */
+    private final double[] xs;
+
+    /**
+     * The y-coordinates of the cities.
+     */
+    private final double[] ys;
+
+    /**
+     * A symmetric matrix of distances between cities, stored row-major in a flat array,
+     * or {@code null} if the distances are calculated when needed.
+     */
+    private final double[] matrix;
+
+    /**
+     * The distances between each city and each of its candidates.
+     */
+    private final float[][] candidateDistances;
+
+    /**
+     * Constructs a {@link TSPDistances}.
+     *
+     * @param cities the cities, ordered by index
+     * @param candidates the indexes of the closest cities of each city
+     * @param dense {@code true} to precalculate the dense distance matrix if there are at most
+     *              {@value #MAX_DENSE_CITY_COUNT} cities, {@code false} to calculate the distances when needed
+     */
+    public TSPDistances(List<City> cities, int[][] candidates, boolean dense) {
+        cityCount = cities.size();
+        xs = new double[cityCount];
+        ys = new double[cityCount];
+
+        for (int i = 0; i < cityCount; i++) {
+            xs[i] = cities.get(i).x;
+            ys[i] = cities.get(i).y;
+        }
+
+        if (dense && cityCount <= MAX_DENSE_CITY_COUNT) {
+            matrix = new double[cityCount * cityCount];
+
+            for (int i = 0; i < cityCount; i++) {
+                for (int j = i + 1; j < cityCount; j++) {
+                    matrix[index(i, j)] = calculate(i, j);
+                    matrix[index(j, i)] = matrix[index(i, j)];
+                }
+            }
+        } else {
+            matrix = null;
+        }
+
+        candidateDistances = new float[cityCount][];
+        for (int i = 0; i < cityCount; i++) {
+            candidateDistances[i] = new float[candidates[i].length];
+
+            for (int k = 0; k < candidates[i].length; k++) {
+                candidateDistances[i][k] = (float) calculate(i, candidates[i][k]);
+            }
+        }
+    }
+
+    /**
+     * Returns the distance between the given cities.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @return the distance between the cities
+     */
+    public double distance(int first, int second) {
+        return matrix != null ? matrix[index(first, second)] : calculate(first, second);
+    }
+
+
+    /**
+     * Returns the distance between the given city and its candidate of the given index, as a float.
+     *
+     * @param city the city
+     * @param candidate the index of the candidate in the city's candidates
+     * @return the distance between the city and the candidate
+     */
+    public float candidateDistance(int city, int candidate) {
+        return candidateDistances[city][candidate];
+    }
+
+    /**
+     * Returns the number of cities.
+     *
+     * @return the number of cities
+     */
+    public int getCityCount() {
+        return cityCount;
+    }
+
+    /**
+     * Returns the index of the distance between the given cities in the {@link #matrix}.
+     * The index is calculated in long arithmetic, so an overflowing index fails instead of wrapping around.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @return the index of the distance in the matrix
+     */
+    private int index(int first, int second) {
+        return Math.toIntExact((long) first * cityCount + second);
+    }
+
+    /**
+     * Calculates the distance between the given cities from their coordinates.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @return the distance between the cities
+     */
+    private double calculate(int first, int second) {
+        double dx = xs[first] - xs[second];
+        double dy = ys[first] - ys[second];
+
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+}
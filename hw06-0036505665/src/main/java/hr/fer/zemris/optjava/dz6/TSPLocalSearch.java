@@ -0,0 +1,381 @@
+package hr.fer.zemris.optjava.dz6;
+
+/**
+ * A local search that improves TSP tours using 2-opt and Or-opt moves.
+ *
+ * Only moves that create an edge between a city and one of its candidate cities are considered, and the
+ * candidates of a city are scanned only while they are closer than the edge the move would remove, comparing
+ * the stored candidate distances, while gains are calculated from exact distances. Cities
+ * waiting to be checked are kept in a queue - a city leaves the queue when no improving move starts in it
+ * (its don't-look bit is set) and is added again when one of its tour edges changes.
+ *
+ * The tour is an array of cities with an inverse array of positions. A 2-opt move reverses the shorter of
+ * the two parts of the tour. An Or-opt move, which moves up to {@link #MAX_SEGMENT_LENGTH} consecutive
+ * cities between two other cities, swaps the moved segment with the shorter of the neighbouring blocks
+ * using reversals.
+ *
+ * Instances keep their own helper arrays, so each thread needs its own instance.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class TSPLocalSearch {
+
+    /**
+     * The maximum number of consecutive cities moved by an Or-opt move.
+     */
+    private static final int MAX_SEGMENT_LENGTH = 3;
+
+    /**
+     * The minimum improvement of the tour length for a move to be applied.
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * The minimum number of cities for the moves to be meaningful.
+     */
+    private static final int MIN_CITY_COUNT = 8;
+
+    /**
+     * The number of cities.
+     */
+    private final int cityCount;
+
+    /**
+     * The distances between cities.
+     */
+    private final TSPDistances distances;
+
+    /**
+     * The indexes of the closest cities of each city, ordered by distance.
+     */
+    private final int[][] candidates;
+
+    /**
+     * The tour being improved.
+     */
+    private int[] tour;
+
+    /**
+     * The position of each city in {@link #tour}.
+     */
+    private final int[] positions;
+
+    /**
+     * A circular queue of cities to check.
+     */
+    private final int[] queue;
+
+    /**
+     * {@code true} for cities in the {@link #queue}, i.e. cities whose don't-look bit is not set.
+     */
+    private final boolean[] queued;
+
+    /**
+     * The index of the first city in the {@link #queue}.
+     */
+    private int head;
+
+    /**
+     * The number of cities in the {@link #queue}.
+     */
+    private int queueSize;
+
+    /**
+     * Constructs a {@link TSPLocalSearch}.
+     *
+     * @param distances the distances between cities
+     * @param candidates the indexes of the closest cities of each city, ordered by distance
+     */
+    public TSPLocalSearch(TSPDistances distances, int[][] candidates) {
+        this.cityCount = candidates.length;
+        this.distances = distances;
+        this.candidates = candidates;
+
+        positions = new int[cityCount];
+        queue = new int[cityCount];
+        queued = new boolean[cityCount];
+    }
+
+    /**
+     * Improves the tour of the given ant until no improving move is left, updating its tour length.
+     *
+     * @param ant the ant whose tour to improve
+     */
+    public void improve(TSPAnt ant) {
+        if (cityCount < MIN_CITY_COUNT) {
+            return;
+        }
+
+        tour = ant.tour;
+        head = 0;
+        queueSize = 0;
+
+        for (int i = 0; i < cityCount; i++) {
+            positions[tour[i]] = i;
+            queued[tour[i]] = false;
+        }
+
+        for (int i = 0; i < cityCount; i++) {
+            enqueue(tour[i]);
+        }
+
+        double gain = 0;
+        while (queueSize > 0) {
+            int city = queue[head];
+            head = head + 1 == cityCount ? 0 : head + 1;
+            queueSize--;
+            queued[city] = false;
+
+            double moveGain = twoOpt(city);
+            if (moveGain == 0) {
+                moveGain = orOpt(city);
+            }
+
+            if (moveGain > 0) {
+                gain += moveGain;
+                enqueue(city);
+            }
+        }
+
+        ant.tourLength -= gain;
+        tour = null;
+    }
+
+    /**
+     * Applies the first improving 2-opt move that replaces an edge of the given city.
+     *
+     * @param c1 the city
+     * @return the gain of the applied move, or 0 if there is none
+     */
+    private double twoOpt(int c1) {
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int c2 = forward ? next(c1) : previous(c1);
+            double d12 = distance(c1, c2);
+
+            for (int k = 0; k < candidates[c1].length; k++) {
+                if (distances.candidateDistance(c1, k) >= d12) {
+                    break;
+                }
+
+                int c3 = candidates[c1][k];
+                int c4 = forward ? next(c3) : previous(c3);
+                if (c3 == c1 || c4 == c1) {
+                    continue;
+                }
+
+                double gain = d12 + distance(c3, c4) - distance(c1, c3) - distance(c2, c4);
+                if (gain > EPSILON) {
+                    if (forward) {
+                        reverseShorter(positions[c2], positions[c3]);
+                    } else {
+                        reverseShorter(positions[c1], positions[c4]);
+                    }
+
+                    enqueue(c2);
+                    enqueue(c3);
+                    enqueue(c4);
+                    return gain;
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Applies the first improving Or-opt move that moves a segment starting with the given city.
+     *
+     * @param s1 the first city of the segment
+     * @return the gain of the applied move, or 0 if there is none
+     */
+    private double orOpt(int s1) {
+        int start = positions[s1];
+        int p = previous(s1);
+
+        int s2 = s1;
+        for (int length = 1; length <= MAX_SEGMENT_LENGTH; length++) {
+            if (length > 1) {
+                s2 = next(s2);
+            }
+
+            int n = next(s2);
+            double removeGain = distance(p, s1) + distance(s2, n) - distance(p, n);
+            if (removeGain <= EPSILON) {
+                continue;
+            }
+
+            for (int end = 0; end < 2; end++) {
+                int e = end == 0 ? s1 : s2;
+
+                for (int k = 0; k < candidates[e].length; k++) {
+                    if (distances.candidateDistance(e, k) >= removeGain) {
+                        break;
+                    }
+
+                    int c = candidates[e][k];
+                    if (inSegment(c, start, length)) {
+                        continue;
+                    }
+
+                    for (int side = 0; side < 2; side++) {
+                        int x = side == 0 ? c : previous(c);
+                        int y = side == 0 ? next(c) : c;
+                        if (inSegment(x, start, length) || inSegment(y, start, length)) {
+                            continue;
+                        }
+
+                        // the segment is kept in order if it ends up as x s1 ... s2 y
+                        boolean keepOrder = (e == s1) == (x == c);
+                        int first = keepOrder ? s1 : s2;
+                        int last = keepOrder ? s2 : s1;
+
+                        double gain = removeGain - (distance(x, first) + distance(last, y) - distance(x, y));
+                        if (gain > EPSILON) {
+                            moveSegment(start, length, positions[y], keepOrder);
+
+                            enqueue(p);
+                            enqueue(n);
+                            enqueue(s2);
+                            enqueue(x);
+                            enqueue(y);
+                            return gain;
+                        }
+                    }
+                }
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Moves the segment of the given length starting at the given position in front of the city on the given
+     * position, by swapping the segment with the shorter of the two blocks separating it from that city.
+     *
+     * @param start the position of the first city of the segment
+     * @param length the length of the segment
+     * @param target the position of the city that should follow the segment
+     * @param keepOrder {@code true} if the segment should keep its order
+     */
+    private void moveSegment(int start, int length, int target, boolean keepOrder) {
+        int after = (start + length) % cityCount;
+        int followingLength = (target - after + cityCount) % cityCount;
+        int precedingLength = cityCount - length - followingLength;
+
+        if (followingLength <= precedingLength) {
+            // S A -> A S, where A is the block between the segment and the target
+            reverse(start, length + followingLength);
+            reverse(start, followingLength);
+            if (keepOrder) {
+                reverse((start + followingLength) % cityCount, length);
+            }
+        } else {
+            // B S -> S B, where B is the block between the target and the segment
+            reverse(target, precedingLength + length);
+            reverse((target + length) % cityCount, precedingLength);
+            if (keepOrder) {
+                reverse(target, length);
+            }
+        }
+    }
+
+    /**
+     * Reverses the part of the tour from the first to the last position, or the rest of the tour if it is
+     * shorter. Both result in the same cyclic tour.
+     *
+     * @param first the first position of the part
+     * @param last the last position of the part
+     */
+    private void reverseShorter(int first, int last) {
+        int length = (last - first + cityCount) % cityCount + 1;
+
+        if (2 * length <= cityCount) {
+            reverse(first, length);
+        } else {
+            reverse((last + 1) % cityCount, cityCount - length);
+        }
+    }
+
+    /**
+     * Reverses the given number of consecutive cities starting at the given position, wrapping around
+     * the end of the tour.
+     *
+     * @param start the position of the first city
+     * @param length the number of cities to reverse
+     */
+    private void reverse(int start, int length) {
+        int i = start;
+        int j = (start + length - 1) % cityCount;
+
+        for (int k = 0; k < length / 2; k++) {
+            int city = tour[i];
+            tour[i] = tour[j];
+            tour[j] = city;
+            positions[tour[i]] = i;
+            positions[tour[j]] = j;
+
+            i = i + 1 == cityCount ? 0 : i + 1;
+            j = j == 0 ? cityCount - 1 : j - 1;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given city is in the segment of the given length starting at the given position.
+     *
+     * @param city the city to check
+     * @param start the position of the first city of the segment
+     * @param length the length of the segment
+     * @return {@code true} if the city is in the segment
+     */
+    private boolean inSegment(int city, int start, int length) {
+        return (positions[city] - start + cityCount) % cityCount < length;
+    }
+
+    /**
+     * Adds the given city to the queue unless it is already in it.
+     *
+     * @param city the city to add
+     */
+    private void enqueue(int city) {
+        if (!queued[city]) {
+            queued[city] = true;
+            queue[(head + queueSize) % cityCount] = city;
+            queueSize++;
+        }
+    }
+
+    /**
+     * Returns the city following the given city in the tour.
+     *
+     * @param city the city
+     * @return the next city
+     */
+    private int next(int city) {
+        int position = positions[city] + 1;
+        return tour[position == cityCount ? 0 : position];
+    }
+
+    /**
+     * Returns the city preceding the given city in the tour.
+     *
+     * @param city the city
+     * @return the previous city
+     */
+    private int previous(int city) {
+        int position = positions[city];
+        return tour[position == 0 ? cityCount - 1 : position - 1];
+    }
+
+    /**
+     * Returns the distance between the given cities.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @return the distance between the cities
+     */
+    private double distance(int first, int second) {
+        return distances.distance(first, second);
+    }
+}
@@ -1,11 +1,25 @@
 package hr.fer.zemris.optjava.dz6;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.*;
 
 /**
  * An implementation of Max-Min Ant System for solving the Travelling Salesman Problem (TSP).
  *
+ * The ants only read the pheromone trails while constructing their tours, so the ants can be split
+ * across a pool of worker threads. Each worker has its own scratch array and random number generator.
+ * The trails are evaporated and updated by the calling thread once all tours are constructed.
+ *
+ * Optionally, each constructed tour is improved by a {@link TSPLocalSearch} before the trails are updated.
+ *
+ * The trails are evaporated lazily by {@link TSPTrails} and only the edges of the updating tour are deposited on.
+ * The choice information is kept only for the candidate edges, so an iteration outside of tour construction
+ * takes O(n * k) time, where k is the number of candidates of each city.
+ *
+ * The candidates are found using a {@link KDTree}, and the heuristic information is stored only for the candidate
+ * edges. Together with on-demand distances this makes the memory used O(n * k) instead of O(n^2).
+ *
  * @author Bruna Dujmović
  *
  */
@@ -27,29 +41,53 @@ public class TSPMMAS {
     private List<City> cities;
 
     /**
-     * A symmetric matrix of pheromone trails.
+     * The pheromone trails.
      */
-    private double[][] trails;
+    private TSPTrails trails;
 
     /**
-     * A symmetric matrix of distances between cities.
+     * The distances between cities.
      */
-    private double[][] distances;
+    private TSPDistances distances;
 
     /**
-     * The heuristics matrix.
+     * The heuristic information of the candidate edges - {@code (1 / distance)^beta} between each city and
+     * each of its {@link #candidates}, in the same order.
      */
     private double[][] heuristics;
 
+    /**
+     * The choice information of the candidate edges - {@code trails^alpha * heuristics} between each city and
+     * each of its {@link #candidates}, in the same order. Recalculated once per iteration, after the trails
+     * are updated. The choice information of other edges is calculated when it is needed.
+     */
+    private double[][] choiceInfo;
+
+    /**
+     * The indexes of the closest cities of each city, ordered by distance.
+     */
+    private int[][] candidates;
+
     /**
      * The ant population for solving the TSP.
      */
     private TSPAnt[] ants;
 
     /**
-     * A helper array of an ant's probabilities for choosing each city.
+     * Helper arrays of an ant's probabilities for choosing each candidate city, one for each group of ants.
      */
-    private double[] probabilities;
+    private double[][] probabilities;
+
+    /**
+     * The local searches improving the constructed tours, one for each group of ants,
+     * or {@code null} if the tours are not improved.
+     */
+    private TSPLocalSearch[] localSearches;
+
+    /**
+     * The number of threads constructing the tours.
+     */
+    private final int threadCount;
 
     /**
      * The evaporation constant.
@@ -100,6 +138,33 @@ public class TSPMMAS {
      */
     public TSPMMAS(List<City> cities, int closestCount, int antsCount, int maxIterations,
                    double rho, double alpha, double beta, double a) {
+        this(cities, closestCount, antsCount, maxIterations, rho, alpha, beta, a, 1, false, true);
+    }
+
+    /**
+     * Constructs a {@link TSPMMAS} of the given parameters that constructs the tours using multiple threads.
+     *
+     * @param cities a list of TSP cities
+     * @param closestCount the number of closest city neighbors to find
+     * @param antsCount the size of the ant population
+     * @param maxIterations he maximum number of iterations before tha algorithm terminates
+     * @param rho the evaporation constant
+     * @param alpha the alpha constant
+     * @param beta the beta constant
+     * @param a the a parameter for calculating {@link #tauMin}
+     * @param threadCount the number of threads constructing the tours
+     * @param useLocalSearch {@code true} if the constructed tours should be improved by a local search
+     * @param denseDistances {@code true} to precalculate the matrix of all distances (see
+     *                       {@link TSPDistances#MAX_DENSE_CITY_COUNT}),
+     *                       {@code false} to calculate the distances when needed
+     * @throws IllegalArgumentException if the thread count is not positive
+     */
+    public TSPMMAS(List<City> cities, int closestCount, int antsCount, int maxIterations, double rho, double alpha,
+                   double beta, double a, int threadCount, boolean useLocalSearch, boolean denseDistances) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be positive, got " + threadCount);
+        }
+
         this.cities = cities;
         this.cityCount = cities.size();
 
@@ -109,75 +174,88 @@ public class TSPMMAS {
         this.beta = beta;
         this.a = a;
 
-        probabilities = new double[cityCount];
+        this.threadCount = Math.min(threadCount, antsCount);
+        probabilities = new double[this.threadCount][closestCount];
 
+        KDTree tree = new KDTree(cities);
+        cities.forEach(city -> city.findClosest(closestCount, tree));
+        initializeCandidates();
+        distances = new TSPDistances(cities, candidates, denseDistances);
         initializeMatrices();
         initializeAnts(antsCount);
-        cities.forEach(city -> city.findClosest(closestCount, cities, distances[city.index]));
-        
+
+        if (useLocalSearch) {
+            localSearches = new TSPLocalSearch[this.threadCount];
+            for (int i = 0; i < this.threadCount; i++) {
+                localSearches[i] = new TSPLocalSearch(distances, candidates);
+            }
+        }
+
         this.tauMax = getTauInitial();
         this.tauMin = tauMax / a;
         initializeAnts(antsCount);
-        initializeTrails();
+        trails = new TSPTrails(candidates, rho, tauMin, tauMax);
+        computeChoiceInfo();
     }
 
     /**
-     * Initializes the {@link #distances}, {@link #heuristics} and {@link #trails} matrices.
+     * Initializes the {@link #candidates} from the closest cities of each city.
      */
-    private void initializeMatrices() {
-        distances = new double[cityCount][cityCount];
-        heuristics = new double[cityCount][cityCount];
+    private void initializeCandidates() {
+        candidates = new int[cityCount][];
 
-        for(int i = 0; i < cityCount; i++) {
-            distances[i][i] = 0;
-
-            for(int j = i + 1; j < cityCount; j++) {
-                double distance = cities.get(i).distanceTo(cities.get(j));
-                distances[i][j] = distance;
-                distances[j][i] = distance;
+        for (City city : cities) {
+            int[] closest = new int[city.closestCities.size()];
 
-                heuristics[i][j] = Math.pow(1.0 / distance, beta);
-                heuristics[j][i] = heuristics[i][j];
+            for (int i = 0; i < closest.length; i++) {
+                closest[i] = city.closestCities.get(i).index;
             }
+
+            candidates[city.index] = closest;
         }
     }
 
     /**
-     * Initializes the matrix of pheromone trails.
+     * Initializes the {@link #heuristics} and {@link #choiceInfo} of the candidate edges.
      */
-    private void initializeTrails() {
-        trails = new double[cityCount][cityCount];
+    private void initializeMatrices() {
+        heuristics = new double[cityCount][];
+        choiceInfo = new double[cityCount][];
 
-        for(int i = 0; i < cityCount; i++) {
-            trails[i][i] = tauMax;
+        for (int i = 0; i < cityCount; i++) {
+            heuristics[i] = new double[candidates[i].length];
+            choiceInfo[i] = new double[candidates[i].length];
 
-            for(int j = i + 1; j < cityCount; j++) {
-                trails[i][j] = tauMax;
-                trails[j][i] = tauMax;
+            for (int k = 0; k < candidates[i].length; k++) {
+                heuristics[i][k] = Math.pow(1.0 / distances.candidateDistance(i, k), beta);
             }
         }
     }
 
     /**
-     * Initializes the ant population for solving the TSP.
+     * Initializes the ant population for solving the TSP. The ants are created on the first call
+     * and reset on the following ones, and each ant is placed in a random city.
      *
      * @param antsCount the size of the ant population
      */
     private void initializeAnts(int antsCount) {
         if (ants == null) {
             ants = new TSPAnt[antsCount];
-        }
 
-        for(int i = 0; i < antsCount; i++) {
-            int initialCityIndex = ThreadLocalRandom.current().nextInt(cityCount);
+            for (int i = 0; i < antsCount; i++) {
+                ants[i] = new TSPAnt(cityCount);
+            }
+        }
 
-            ants[i] = new TSPAnt(cityCount);
-            ants[i].visit(cities.get(initialCityIndex));
+        for (TSPAnt ant : ants) {
+            ant.reset();
+            ant.visit(ThreadLocalRandom.current().nextInt(cityCount));
         }
     }
 
     /**
-     * Calculates the initial {@link #tauMax}.
+     * Calculates the initial {@link #tauMax} from the shortest of the nearest neighbour tours
+     * starting in the initial cities of the ants.
      *
      * @return the initial {@link #tauMax}
      */
@@ -185,10 +263,10 @@ public class TSPMMAS {
         TSPAnt best = null;
 
         for (TSPAnt ant : ants) {
-            City currentCity = ant.getInitialCity();
+            int currentCity = ant.getInitialCity();
 
             for (int j = 0; j < cityCount - 1; j++) {
-                City nextCity = currentCity.closestCities.get(0);
+                int nextCity = closestUnvisited(currentCity, ant);
 
                 ant.visit(nextCity);
                 currentCity = nextCity;
@@ -209,40 +287,54 @@ public class TSPMMAS {
      * Executes the algorithm.
      */
     public void run() {
-        TSPAnt bestSoFar = null;
+        ExecutorService executor = threadCount > 1 ? Executors.newFixedThreadPool(threadCount) : null;
+
+        try {
+            run(executor);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Executes the algorithm, constructing the tours on the given executor.
+     *
+     * @param executor the executor to construct the tours on, or {@code null} to construct them on this thread
+     * @throws InterruptedException if interrupted while waiting for the tours
+     */
+    private void run(ExecutorService executor) throws InterruptedException {
+        TSPAnt bestSoFar = new TSPAnt(cityCount);
+        bestSoFar.tourLength = Double.POSITIVE_INFINITY;
         int stagnationCount = 0;
 
         int iteration = 0;
         while(iteration < maxIterations) {
-            TSPAnt iterationBest = null;
-
-            for (TSPAnt ant : ants) {
-                walk(ant);
+            TSPAnt iterationBest = walkAll(executor);
 
-                if (iterationBest == null || ant.tourLength < iterationBest.tourLength) {
-                    iterationBest = ant;
-                }
-            }
-
-            assert iterationBest != null;
-            if (bestSoFar == null || iterationBest.tourLength < bestSoFar.tourLength) {
-                bestSoFar = iterationBest;
+            if (iterationBest.tourLength < bestSoFar.tourLength) {
+                bestSoFar.copyFrom(iterationBest);
                 stagnationCount = 0;
             } else {
                 stagnationCount++;
             }
 
-            evaporateTrails();
+            trails.evaporate();
 
             if (stagnationCount >= MAX_STAGNATION_COUNT) {
                 tauMax = 1.0 / (rho * bestSoFar.tourLength);
                 tauMin = tauMax / a;
-                initializeTrails();
+                trails.reset(tauMin, tauMax);
                 stagnationCount = 0;
             } else {
                 updateTrails((iteration < maxIterations / 2) ? iterationBest : bestSoFar);
             }
 
+            computeChoiceInfo();
+
             initializeAnts(ants.length);
             iteration++;
 
@@ -252,22 +344,84 @@ public class TSPMMAS {
         System.out.println(bestSoFar);
     }
 
+    /**
+     * Makes all ants visit all cities and returns the ant with the shortest tour. The ants are split into
+     * {@link #threadCount} groups, each walked by a single task, and the best ants of the groups are compared
+     * once all tasks are done.
+     *
+     * @param executor the executor to run the tasks on, or {@code null} to run them on this thread
+     * @return the ant with the shortest tour
+     * @throws InterruptedException if interrupted while waiting for the tasks
+     */
+    private TSPAnt walkAll(ExecutorService executor) throws InterruptedException {
+        if (executor == null) {
+            return walkGroup(0, 0, ants.length);
+        }
+
+        List<Callable<TSPAnt>> tasks = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            int group = i;
+            int from = i * ants.length / threadCount;
+            int to = (i + 1) * ants.length / threadCount;
+
+            tasks.add(() -> walkGroup(group, from, to));
+        }
+
+        TSPAnt best = null;
+        for (Future<TSPAnt> future : executor.invokeAll(tasks)) {
+            TSPAnt groupBest;
+            try {
+                groupBest = future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Tour construction failed", e.getCause());
+            }
+
+            if (best == null || groupBest.tourLength < best.tourLength) {
+                best = groupBest;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Makes the ants in the given range visit all cities, improves their tours if local search is used,
+     * and returns the ant with the shortest tour.
+     *
+     * @param group the index of the group, selecting the helper objects used by its ants
+     * @param from the index of the first ant, inclusive
+     * @param to the index of the last ant, exclusive
+     * @return the ant of the group with the shortest tour
+     */
+    private TSPAnt walkGroup(int group, int from, int to) {
+        TSPAnt best = null;
+
+        for (int i = from; i < to; i++) {
+            walk(ants[i], probabilities[group]);
+
+            if (localSearches != null) {
+                localSearches[group].improve(ants[i]);
+            }
+
+            if (best == null || ants[i].tourLength < best.tourLength) {
+                best = ants[i];
+            }
+        }
+
+        return best;
+    }
+
     /**
      * Makes the given ant visit all cities.
      *
      * @param ant the and to walk
+     * @param probabilities the helper array of the ant's probabilities for choosing each candidate city
      */
-    private void walk(TSPAnt ant) {
-        City currentCity = ant.getInitialCity();
+    private void walk(TSPAnt ant, double[] probabilities) {
+        int currentCity = ant.getInitialCity();
 
         for (int i = 0; i < cityCount - 1; i++) {
-            City nextCity;
-
-            if (!ant.visitedAll(currentCity.closestCities)) {
-                nextCity = pickNextCity(currentCity, currentCity.closestCities, ant);
-            } else {
-                nextCity = pickNextCity(currentCity, cities, ant);
-            }
+            int nextCity = pickNextCity(currentCity, ant, probabilities);
 
             ant.visit(nextCity);
             currentCity = nextCity;
@@ -277,45 +431,146 @@ public class TSPMMAS {
     }
 
     /**
-     * Picks an ant's next city from a given list of cities.
+     * Picks an ant's next city. The city is chosen among the unvisited candidates of the current city
+     * with probabilities proportional to their choice information. If all candidates have been visited,
+     * the unvisited city with the highest choice information is chosen, calculating the choice information
+     * of each unvisited city from the trails.
      *
-     * @param currentCity the current city
-     * @param cities the list of cities
+     * @param currentCity the index of the current city
      * @param ant the ant whose next city should be found
-     * @return the ant's next city
+     * @param probabilities the helper array of the ant's probabilities for choosing each candidate city
+     * @return the index of the ant's next city
      */
-    private City pickNextCity(City currentCity, List<City> cities, TSPAnt ant) {
-        City nextCity = null;
+    private int pickNextCity(int currentCity, TSPAnt ant, double[] probabilities) {
+        double[] choice = choiceInfo[currentCity];
+        int[] closest = candidates[currentCity];
         double probabilitiesSum = 0;
 
-        for (City city : cities) {
-            probabilities[city.index] = Math.pow(trails[currentCity.index][city.index], alpha)
-                    * heuristics[currentCity.index][city.index];
+        for (int i = 0; i < closest.length; i++) {
+            double probability = ant.visited(closest[i]) ? 0 : choice[i];
 
-            probabilitiesSum += probabilities[city.index];
+            probabilities[i] = probability;
+            probabilitiesSum += probability;
         }
 
-        double sum = 0;
-        double number = ThreadLocalRandom.current().nextDouble();
-        for (City city : cities) {
-            sum += probabilities[city.index] / probabilitiesSum;
+        if (probabilitiesSum > 0) {
+            double number = ThreadLocalRandom.current().nextDouble() * probabilitiesSum;
+            double sum = 0;
 
-            if (number <= sum && !ant.visited(city)) {
-                nextCity = city;
-                break;
+            for (int i = 0; i < closest.length; i++) {
+                sum += probabilities[i];
+
+                if (number < sum) {
+                    return closest[i];
+                }
+            }
+
+            for (int i = closest.length - 1; i >= 0; i--) {
+                if (probabilities[i] > 0) {
+                    return closest[i];
+                }
             }
         }
 
-        if (nextCity == null) {
-            for (City city : cities) {
-                if (!ant.visited(city)) {
-                    nextCity = city;
-                    break;
+        return bestUnvisitedChoice(currentCity, ant);
+    }
+
+    /**
+     * Returns the index of the unvisited city with the highest choice information from the given city.
+     *
+     * Most edges have not been deposited on since the last reset, so they share the same trail and the nearest
+     * of them has the highest choice information. Only the other edges need their own powers.
+     *
+     * @param currentCity the index of the current city
+     * @param ant the ant whose unvisited cities are considered
+     * @return the index of the unvisited city with the highest choice information
+     */
+    private int bestUnvisitedChoice(int currentCity, TSPAnt ant) {
+        double trailAfterReset = trails.getAfterReset();
+
+        int nearest = -1;
+        double nearestDistance = 0;
+        int best = -1;
+        double bestChoice = 0;
+
+        for (int city = 0; city < cityCount; city++) {
+            if (ant.visited(city)) {
+                continue;
+            }
+
+            double trail = trails.get(currentCity, city);
+            double distance = distances.distance(currentCity, city);
+
+            if (trail == trailAfterReset) {
+                if (nearest == -1 || distance < nearestDistance) {
+                    nearest = city;
+                    nearestDistance = distance;
                 }
+                continue;
+            }
+
+            double choice = Math.pow(trail, alpha) * Math.pow(1.0 / distance, beta);
+            if (best == -1 || choice > bestChoice) {
+                best = city;
+                bestChoice = choice;
             }
         }
 
-        return nextCity;
+        if (nearest != -1) {
+            double choice = Math.pow(trailAfterReset, alpha) * Math.pow(1.0 / nearestDistance, beta);
+            if (best == -1 || choice > bestChoice) {
+                best = nearest;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns the index of the closest city to the given city that has not been visited by the given ant.
+     *
+     * @param currentCity the index of the current city
+     * @param ant the ant whose unvisited cities are considered
+     * @return the index of the closest unvisited city
+     */
+    private int closestUnvisited(int currentCity, TSPAnt ant) {
+        for (int city : candidates[currentCity]) {
+            if (!ant.visited(city)) {
+                return city;
+            }
+        }
+
+        int closest = -1;
+        double closestDistance = 0;
+
+        for (int city = 0; city < cityCount; city++) {
+            if (ant.visited(city)) {
+                continue;
+            }
+
+            double distance = distances.distance(currentCity, city);
+            if (closest == -1 || distance < closestDistance) {
+                closest = city;
+                closestDistance = distance;
+            }
+        }
+
+        return closest;
+    }
+
+    /**
+     * Calculates the {@link #choiceInfo} of the candidate edges from the current trails.
+     */
+    private void computeChoiceInfo() {
+        for (int i = 0; i < cityCount; i++) {
+            int[] closest = candidates[i];
+            double[] heuristicRow = heuristics[i];
+            double[] choiceRow = choiceInfo[i];
+
+            for (int k = 0; k < closest.length; k++) {
+                choiceRow[k] = Math.pow(trails.getCandidate(i, k), alpha) * heuristicRow[k];
+            }
+        }
     }
 
     /**
@@ -324,12 +579,14 @@ public class TSPMMAS {
      * @param ant the ant to evaluate.
      */
     private void evaluate(TSPAnt ant) {
-        ant.tourLength = 0;
+        int[] tour = ant.tour;
+        double length = distances.distance(tour[cityCount - 1], tour[0]);
 
         for (int i = 0; i < cityCount - 1; i++) {
-            ant.tourLength += distances[ant.tour.get(i).index][ant.tour.get(i + 1).index];
+            length += distances.distance(tour[i], tour[i + 1]);
         }
-        ant.tourLength += distances[ant.tour.get(0).index][ant.tour.get(cityCount - 1).index];
+
+        ant.tourLength = length;
     }
 
     /**
@@ -340,24 +597,11 @@ public class TSPMMAS {
     private void updateTrails(TSPAnt ant) {
         double delta = 1.0 / ant.tourLength;
 
-        for(int i = 0; i < cityCount - 1; i++) {
-            int a = ant.tour.get(i).index;
-            int b = ant.tour.get(i + 1).index;
-
-            trails[a][b] = Math.min(trails[a][b] + delta, tauMax);
-            trails[b][a] = trails[a][b];
-        }
-    }
-
-    /**
-     * Evaporates the pheromone trails.
-     */
-    private void evaporateTrails() {
         for(int i = 0; i < cityCount; i++) {
-            for(int j = i + 1; j < cityCount; j++) {
-                trails[i][j] = Math.max(trails[i][j] * (1 - rho), tauMin);
-                trails[j][i] = trails[i][j];
-            }
+            int a = ant.tour[i];
+            int b = ant.tour[(i + 1) % cityCount];
+
+            trails.deposit(a, b, delta);
         }
     }
 }
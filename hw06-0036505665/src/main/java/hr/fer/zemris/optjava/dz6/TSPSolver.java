@@ -40,17 +40,24 @@ public class TSPSolver {
      *
      * @param args the command-line arguments, 4 expected - a path to the TSP data file,
      *             the number of closest city neighbors to find, the size of the ant population,
-     *             the maximum number of iterations before the algorithm terminates
+     *             the maximum number of iterations before the algorithm terminates - and optionally
+     *             the number of threads constructing the tours, whether the tours are improved by local search
+     *             and whether the distances are calculated when needed instead of precalculated, which is
+     *             needed for instances too large for a dense distance matrix and automatic above
+     *             {@value TSPDistances#MAX_DENSE_CITY_COUNT} cities
      */
     public static void main(String[] args) {
-        if (args.length != 4) {
-            System.out.println("Expected 4 arguments, got " + args.length);
+        if (args.length < 4 || args.length > 7) {
+            System.out.println("Expected 4 to 7 arguments, got " + args.length);
             System.exit(1);
         }
 
         int closestCount = Integer.parseInt(args[1]);
         int antsCount = Integer.parseInt(args[2]);
         int maxIterations = Integer.parseInt(args[3]);
+        int threadCount = args.length >= 5 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        boolean useLocalSearch = args.length >= 6 && Boolean.parseBoolean(args[5]);
+        boolean onDemandDistances = args.length == 7 && Boolean.parseBoolean(args[6]);
 
         List<City> cities = null;
         try (BufferedReader br = Files.newBufferedReader(Paths.get(args[0]))) {
@@ -62,7 +69,7 @@ public class TSPSolver {
         }
 
         new TSPMMAS(cities, closestCount, antsCount, maxIterations,
-                RHO, ALPHA, BETA, getA(cities.size())).run();
+                RHO, ALPHA, BETA, getA(cities.size()), threadCount, useLocalSearch, !onDemandDistances).run();
     }
 
     /**
@@ -0,0 +1,375 @@
+package hr.fer.zemris.optjava.dz6;
+
+import java.util.Arrays;
+
+/**
+ * A symmetric matrix of pheromone trails bounded by {@code tauMin} and {@code tauMax}, as used by MMAS.
+ *
+ * Evaporation is lazy - {@link #evaporate()} only advances a global iteration counter. Each edge stores the
+ * value it had after its last deposit together with the iteration of that deposit, and the evaporation since
+ * then is applied when the edge is read. Because the lower bound is applied after every evaporation,
+ * {@code max(tau * (1 - rho)^k, tauMin)} is exactly the value the edge would have after {@code k} eager
+ * evaporations. Resetting all trails to {@code tauMax} is also done by recording the iteration of the reset,
+ * so an iteration costs time proportional to the number of edges that are read and deposited on, not to the
+ * size of the matrix.
+ *
+ * Only the edges that can hold a value other than the one they got at the last reset are stored - the edges
+ * between each city and its candidates, and the other edges that have been deposited on since the last reset,
+ * which are found through a hash table. Memory is therefore O(n * k) plus the number of such other edges,
+ * where k is the number of candidates of each city.
+ *
+ * Reading is thread-safe as long as no deposit, evaporation or reset is done at the same time.
+ *
+ * @author Bruna Dujmović
+ *
+ */
+public class TSPTrails {
+
+    /**
+     * The initial capacity of the hash table of other edges.
+     */
+    private static final int INITIAL_TABLE_CAPACITY = 1024;
+
+    /**
+     * The number of cities.
+     */
+    private final int cityCount;
+
+    /**
+     * The indexes of the closest cities of each city.
+     */
+    private final int[][] candidates;
+
+    /**
+     * The index of the edge between each city and each of its candidates. An edge between two cities that are
+     * candidates of each other has a single index.
+     */
+    private final int[][] slots;
+
+    /**
+     * The number of edges between cities and their candidates, which take the first indexes.
+     */
+    private final int candidateEdgeCount;
+
+    /**
+     * The number of stored edges.
+     */
+    private int edgeCount;
+
+    /**
+     * The value of each stored edge after its last deposit.
+     */
+    private double[] values;
+
+    /**
+     * The iteration of the last deposit on each stored edge, on the same indexes as {@link #values}.
+     */
+    private int[] stamps;
+
+    /**
+     * The key of each stored edge that is not a candidate edge, on the same indexes as {@link #values}.
+     */
+    private long[] keys;
+
+    /**
+     * An open addressing hash table of the indexes of stored edges that are not candidate edges,
+     * with -1 for empty places.
+     */
+    private int[] table;
+
+    /**
+     * {@code (1 - rho)^k} for each number of iterations {@code k} after which an edge evaporated from
+     * {@link #tauMax} can still be above {@link #tauMin}.
+     */
+    private final double[] decay;
+
+    /**
+     * The current iteration.
+     */
+    private int iteration;
+
+    /**
+     * The iteration of the last reset.
+     */
+    private int resetIteration;
+
+    /**
+     * The lower bound for pheromone values.
+     */
+    private double tauMin;
+
+    /**
+     * The upper bound for pheromone values.
+     */
+    private double tauMax;
+
+    /**
+     * Constructs a {@link TSPTrails} with all trails set to {@code tauMax}.
+     *
+     * @param candidates the indexes of the closest cities of each city
+     * @param rho the evaporation constant
+     * @param tauMin the lower bound for pheromone values
+     * @param tauMax the upper bound for pheromone values
+     * @throws IllegalArgumentException if the bounds are not positive and ordered, or rho is not in range (0, 1)
+     */
+    public TSPTrails(int[][] candidates, double rho, double tauMin, double tauMax) {
+        if (!(rho > 0 && rho < 1)) {
+            throw new IllegalArgumentException("Rho must be in range (0, 1), got " + rho);
+        }
+
+        this.cityCount = candidates.length;
+        this.candidates = candidates;
+
+        slots = new int[cityCount][];
+        int count = 0;
+        for (int i = 0; i < cityCount; i++) {
+            slots[i] = new int[candidates[i].length];
+
+            for (int k = 0; k < candidates[i].length; k++) {
+                int j = candidates[i][k];
+                int shared = j < i ? candidateIndex(j, i) : -1;
+
+                slots[i][k] = shared == -1 ? count++ : slots[j][shared];
+            }
+        }
+
+        candidateEdgeCount = count;
+        edgeCount = count;
+        values = new double[Math.max(count, 1)];
+        stamps = new int[values.length];
+        keys = new long[values.length];
+        table = new int[INITIAL_TABLE_CAPACITY];
+
+        reset(tauMin, tauMax);
+
+        int length = (int) Math.ceil(Math.log(tauMin / tauMax) / Math.log(1 - rho)) + 1;
+        decay = new double[Math.max(length, 1)];
+        decay[0] = 1;
+        for (int k = 1; k < decay.length; k++) {
+            decay[k] = decay[k - 1] * (1 - rho);
+        }
+    }
+
+    /**
+     * Returns the trail between the given cities.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @return the trail between the cities
+     */
+    public double get(int first, int second) {
+        int index = find(first, second);
+
+        return index == -1 ? getAfterReset() : get(index);
+    }
+
+    /**
+     * Returns the trail of the edges that have not been deposited on since the last reset,
+     * which is the trail of every edge that is not stored.
+     *
+     * @return the trail of the edges not deposited on since the last reset
+     */
+    public double getAfterReset() {
+        return evaporated(tauMax, resetIteration);
+    }
+
+    /**
+     * Returns the trail between the given city and its candidate of the given index.
+     *
+     * @param city the city
+     * @param candidate the index of the candidate in the city's candidates
+     * @return the trail between the city and the candidate
+     */
+    public double getCandidate(int city, int candidate) {
+        return get(slots[city][candidate]);
+    }
+
+    /**
+     * Deposits the given amount of pheromone on the edge between the given cities, up to {@code tauMax}.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @param amount the amount of pheromone
+     */
+    public void deposit(int first, int second, double amount) {
+        int index = find(first, second);
+        if (index == -1) {
+            index = insert(key(first, second));
+        }
+
+        values[index] = Math.min(get(index) + amount, tauMax);
+        stamps[index] = iteration;
+    }
+
+    /**
+     * Evaporates all trails, keeping them at or above {@code tauMin}. Takes O(1) time.
+     */
+    public void evaporate() {
+        iteration++;
+    }
+
+    /**
+     * Sets all trails to the new upper bound. The ratio of the new bounds must be the same as the ratio
+     * of the bounds given to the constructor. Takes time proportional to the number of stored edges that are
+     * not candidate edges, which are forgotten.
+     *
+     * @param tauMin the new lower bound for pheromone values
+     * @param tauMax the new upper bound for pheromone values
+     * @throws IllegalArgumentException if the bounds are not positive and ordered
+     */
+    public void reset(double tauMin, double tauMax) {
+        if (!(tauMin > 0 && tauMin <= tauMax)) {
+            throw new IllegalArgumentException("Expected 0 < tauMin <= tauMax, got " + tauMin + " and " + tauMax);
+        }
+
+        this.tauMin = tauMin;
+        this.tauMax = tauMax;
+        resetIteration = iteration;
+
+        edgeCount = candidateEdgeCount;
+        Arrays.fill(table, -1);
+    }
+
+    /**
+     * Returns the trail on the given index of {@link #values}.
+     *
+     * @param index the index of the edge
+     * @return the trail of the edge
+     */
+    private double get(int index) {
+        if (stamps[index] > resetIteration) {
+            return evaporated(values[index], stamps[index]);
+        }
+
+        return getAfterReset();
+    }
+
+    /**
+     * Returns the given value after evaporating since the given iteration.
+     *
+     * @param value the value
+     * @param since the iteration when the edge had the value
+     * @return the evaporated value
+     */
+    private double evaporated(double value, int since) {
+        int age = iteration - since;
+        if (age >= decay.length) {
+            return tauMin;
+        }
+
+        return Math.max(value * decay[age], tauMin);
+    }
+
+    /**
+     * Returns the index of the stored edge between the given cities.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @return the index of the edge, or -1 if it is not stored
+     */
+    private int find(int first, int second) {
+        int candidate = candidateIndex(first, second);
+        if (candidate != -1) {
+            return slots[first][candidate];
+        }
+
+        candidate = candidateIndex(second, first);
+        if (candidate != -1) {
+            return slots[second][candidate];
+        }
+
+        long key = key(first, second);
+        for (int i = hash(key); table[i] != -1; i = (i + 1) & (table.length - 1)) {
+            if (keys[table[i]] == key) {
+                return table[i];
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Stores a new edge that is not a candidate edge, with the value it got at the last reset.
+     *
+     * @param key the key of the edge
+     * @return the index of the edge
+     */
+    private int insert(long key) {
+        if (edgeCount == values.length) {
+            values = Arrays.copyOf(values, 2 * edgeCount);
+            stamps = Arrays.copyOf(stamps, 2 * edgeCount);
+            keys = Arrays.copyOf(keys, 2 * edgeCount);
+        }
+
+        int index = edgeCount++;
+        stamps[index] = resetIteration;
+        keys[index] = key;
+
+        if (2 * (edgeCount - candidateEdgeCount) > table.length) {
+            table = new int[2 * table.length];
+            Arrays.fill(table, -1);
+
+            for (int i = candidateEdgeCount; i < index; i++) {
+                put(i);
+            }
+        }
+
+        put(index);
+        return index;
+    }
+
+    /**
+     * Adds the edge of the given index to the hash table.
+     *
+     * @param index the index of the edge
+     */
+    private void put(int index) {
+        int i = hash(keys[index]);
+        while (table[i] != -1) {
+            i = (i + 1) & (table.length - 1);
+        }
+
+        table[i] = index;
+    }
+
+    /**
+     * Returns the index of the given candidate among the candidates of the given city.
+     *
+     * @param city the city
+     * @param candidate the candidate city
+     * @return the index of the candidate, or -1 if it is not a candidate of the city
+     */
+    private int candidateIndex(int city, int candidate) {
+        int[] closest = candidates[city];
+        for (int k = 0; k < closest.length; k++) {
+            if (closest[k] == candidate) {
+                return k;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the key of the edge between the given cities, the same for both directions.
+     *
+     * @param first the first city
+     * @param second the second city
+     * @return the key of the edge
+     */
+    private long key(int first, int second) {
+        return first < second ? (long) first * cityCount + second : (long) second * cityCount + first;
+    }
+
+    /**
+     * Returns the place of the given key in the hash table.
+     *
+     * @param key the key of an edge
+     * @return the place in the hash table
+     */
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32)) & (table.length - 1);
+    }
+}